@@ -0,0 +1,72 @@
+/*
+ * Copyright 2007 Sergiy Dubovik, Alexey Efimov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.spellChecker.benchmarks;
+
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Benchmarked operation.
+ *
+ * @author Alexey Efimov
+ */
+abstract class Benchmark {
+    private final String name;
+    private final String parameters;
+    private final boolean singleShot;
+
+    /**
+     * @param name       Name of benchmark
+     * @param parameters Parameters, shown in report
+     * @param singleShot <code>true</code> if operation is too long for throughput mode and is measured once per
+     *                   iteration
+     */
+    protected Benchmark(@NonNls @NotNull String name, @NonNls @NotNull String parameters, boolean singleShot) {
+        this.name = name;
+        this.parameters = parameters;
+        this.singleShot = singleShot;
+    }
+
+    @NotNull
+    public String getName() {
+        return name;
+    }
+
+    @NotNull
+    public String getParameters() {
+        return parameters;
+    }
+
+    public boolean isSingleShot() {
+        return singleShot;
+    }
+
+    /**
+     * Prepare state before iterations, not measured.
+     *
+     * @throws Exception if state could not be prepared
+     */
+    public void setUp() throws Exception {
+    }
+
+    /**
+     * Run operation once.
+     *
+     * @return Value derived from result of operation, so operation can't be eliminated
+     * @throws Exception if operation failed
+     */
+    public abstract int run() throws Exception;
+}
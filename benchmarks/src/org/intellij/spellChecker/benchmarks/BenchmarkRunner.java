@@ -0,0 +1,201 @@
+/*
+ * Copyright 2007 Sergiy Dubovik, Alexey Efimov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.spellChecker.benchmarks;
+
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * Runner of benchmarks in modes of JMH.
+ * <p/>
+ * Throughput benchmarks run operation repeatedly for fixed time per iteration and report operations per
+ * millisecond, single shot benchmarks run operation once per iteration and report milliseconds per operation.
+ * Warmup iterations are not reported. With GC profile runner also reports bytes allocated per operation by
+ * benchmark thread, taken from <code>com.sun.management.ThreadMXBean</code> if JVM has it, and count and time
+ * of collections during measurement.
+ *
+ * @author Alexey Efimov
+ */
+final class BenchmarkRunner {
+    private static final long ITERATION_NANOS = 1000L * 1000L * 1000L;
+    // Operations between checks of time
+    private static final int BATCH = 16;
+    @NonNls
+    private static final String ALLOCATED_BYTES_METHOD = "getThreadAllocatedBytes";
+    @NonNls
+    private static final String ROW_FORMAT = "%-44s %-48s %-6s %5s %16s %12s  %s%n";
+
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final boolean gcProfile;
+    private final PrintStream out;
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    private final Method allocatedBytes = findAllocatedBytesMethod(threadBean);
+    private long lastIterationNanos;
+    private volatile int sink;
+
+    BenchmarkRunner(int warmupIterations, int measurementIterations, boolean gcProfile, @NotNull PrintStream out) {
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.gcProfile = gcProfile;
+        this.out = out;
+    }
+
+    public void printHeader() {
+        out.printf(ROW_FORMAT, "Benchmark", "Parameters", "Mode", "Cnt", "Score", "StdDev", "Units");
+    }
+
+    public void run(@NotNull Benchmark benchmark) throws Exception {
+        benchmark.setUp();
+        for (int i = 0; i < warmupIterations; i++) {
+            iteration(benchmark);
+        }
+        double[] scores = new double[measurementIterations];
+        long operations = 0;
+        long allocatedBefore = getAllocatedBytes();
+        long gcCountBefore = getCollectionCount();
+        long gcTimeBefore = getCollectionTime();
+        for (int i = 0; i < measurementIterations; i++) {
+            long count = iteration(benchmark);
+            long nanos = lastIterationNanos;
+            operations += count;
+            scores[i] = benchmark.isSingleShot() ? nanos / 1e6 / count : count / (nanos / 1e6);
+        }
+        long allocated = getAllocatedBytes() - allocatedBefore;
+        long gcCount = getCollectionCount() - gcCountBefore;
+        long gcTime = getCollectionTime() - gcTimeBefore;
+
+        String mode = benchmark.isSingleShot() ? "ss" : "thrpt";
+        String units = benchmark.isSingleShot() ? "ms/op" : "ops/ms";
+        print(benchmark.getName(), benchmark.getParameters(), mode, mean(scores), stdDev(scores), units);
+        if (gcProfile) {
+            String name = benchmark.getName() + ":gc.";
+            print(name + "alloc.rate.norm", benchmark.getParameters(), mode,
+                    allocatedBefore >= 0 ? (double) allocated / operations : Double.NaN, Double.NaN, "B/op");
+            print(name + "count", benchmark.getParameters(), mode, gcCount, Double.NaN, "counts");
+            print(name + "time", benchmark.getParameters(), mode, gcTime, Double.NaN, "ms");
+        }
+    }
+
+    private long iteration(@NotNull Benchmark benchmark) throws Exception {
+        int value = 0;
+        long count = 0;
+        long start = System.nanoTime();
+        long now;
+        if (benchmark.isSingleShot()) {
+            value = benchmark.run();
+            count = 1;
+            now = System.nanoTime();
+        } else {
+            long deadline = start + ITERATION_NANOS;
+            do {
+                for (int i = 0; i < BATCH; i++) {
+                    value ^= benchmark.run();
+                }
+                count += BATCH;
+            } while ((now = System.nanoTime()) < deadline);
+        }
+        lastIterationNanos = now - start;
+        sink ^= value;
+        return count;
+    }
+
+    private void print(@NotNull String name, @NotNull String parameters, @NotNull String mode, double score,
+                       double error, @NotNull String units) {
+        out.printf(ROW_FORMAT, name, parameters, mode, measurementIterations,
+                format(score), Double.isNaN(error) ? "" : "+- " + format(error), units);
+    }
+
+    @NotNull
+    private static String format(double value) {
+        return Double.isNaN(value) ? "n/a" : String.format("%.3f", value);
+    }
+
+    private static double mean(@NotNull double[] values) {
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return sum / values.length;
+    }
+
+    private static double stdDev(@NotNull double[] values) {
+        if (values.length < 2) {
+            return Double.NaN;
+        }
+        double mean = mean(values);
+        double sum = 0;
+        for (double value : values) {
+            sum += (value - mean) * (value - mean);
+        }
+        return Math.sqrt(sum / (values.length - 1));
+    }
+
+    /**
+     * @return Bytes allocated by current thread, or -1 if JVM does not count them
+     */
+    private long getAllocatedBytes() {
+        if (allocatedBytes != null) {
+            try {
+                return (Long) allocatedBytes.invoke(threadBean, Thread.currentThread().getId());
+            } catch (Exception e) {
+                // Counting is disabled
+            }
+        }
+        return -1;
+    }
+
+    private static Method findAllocatedBytesMethod(@NotNull ThreadMXBean threadBean) {
+        try {
+            Class<?> type = Class.forName("com.sun.management.ThreadMXBean");
+            if (type.isInstance(threadBean)) {
+                return type.getMethod(ALLOCATED_BYTES_METHOD, long.class);
+            }
+        } catch (Exception e) {
+            // Not Sun JVM, or JVM before Java 6 update 25
+        }
+        return null;
+    }
+
+    private static long getCollectionCount() {
+        long count = 0;
+        List<GarbageCollectorMXBean> beans = ManagementFactory.getGarbageCollectorMXBeans();
+        for (GarbageCollectorMXBean bean : beans) {
+            count += Math.max(0, bean.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long getCollectionTime() {
+        long time = 0;
+        List<GarbageCollectorMXBean> beans = ManagementFactory.getGarbageCollectorMXBeans();
+        for (GarbageCollectorMXBean bean : beans) {
+            time += Math.max(0, bean.getCollectionTime());
+        }
+        return time;
+    }
+
+    public String toString() {
+        return "sink=" + sink;
+    }
+}
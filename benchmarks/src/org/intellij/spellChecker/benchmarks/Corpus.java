@@ -0,0 +1,161 @@
+/*
+ * Copyright 2007 Sergiy Dubovik, Alexey Efimov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.spellChecker.benchmarks;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Reproducible word corpus sampled from dictionary word list.
+ * <p/>
+ * Words are sampled by random with fixed seed, and misspelled words are made from sampled words by one
+ * transposition, deletion, insertion or replacement of character, so every run checks the same words.
+ *
+ * @author Alexey Efimov
+ */
+final class Corpus {
+    private static final long SEED = 20071024L;
+    private static final int SIZE = 4096;
+    private static final int SHORT_PREFIX = 2;
+    private static final int LONG_PREFIX = 5;
+
+    private final List<String> words;
+    private final String[] correct;
+    private final String[] misspelled;
+    private final String[] shortPrefixes;
+    private final String[] longPrefixes;
+
+    private Corpus(@NotNull List<String> words) {
+        this.words = words;
+        Set<String> known = new HashSet<String>(words);
+        Random random = new Random(SEED);
+        char[] alphabet = alphabet(words);
+        List<String> correct = new ArrayList<String>(SIZE);
+        List<String> misspelled = new ArrayList<String>(SIZE);
+        List<String> shortPrefixes = new ArrayList<String>(SIZE);
+        List<String> longPrefixes = new ArrayList<String>(SIZE);
+        while (correct.size() < SIZE) {
+            String word = words.get(random.nextInt(words.size()));
+            correct.add(word);
+            String mistake = misspell(word, alphabet, random);
+            if (!known.contains(mistake)) {
+                misspelled.add(mistake);
+            }
+            if (word.length() >= SHORT_PREFIX) {
+                shortPrefixes.add(word.substring(0, SHORT_PREFIX));
+            }
+            if (word.length() > LONG_PREFIX) {
+                longPrefixes.add(word.substring(0, LONG_PREFIX));
+            }
+        }
+        this.correct = correct.toArray(new String[correct.size()]);
+        this.misspelled = misspelled.toArray(new String[misspelled.size()]);
+        this.shortPrefixes = shortPrefixes.toArray(new String[shortPrefixes.size()]);
+        this.longPrefixes = longPrefixes.toArray(new String[longPrefixes.size()]);
+    }
+
+    /**
+     * @param wordList Word list, one word per line
+     * @param encoding Encoding of word list
+     * @return Corpus
+     * @throws IOException if word list could not be read
+     */
+    @NotNull
+    public static Corpus read(@NotNull File wordList, @NotNull String encoding) throws IOException {
+        List<String> words = new ArrayList<String>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(wordList), encoding));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.length() > 0) {
+                    words.add(line);
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return new Corpus(words);
+    }
+
+    /**
+     * @return All words of word list
+     */
+    @NotNull
+    public List<String> getWords() {
+        return words;
+    }
+
+    @NotNull
+    public String[] getCorrect() {
+        return correct;
+    }
+
+    @NotNull
+    public String[] getMisspelled() {
+        return misspelled;
+    }
+
+    @NotNull
+    public String[] getShortPrefixes() {
+        return shortPrefixes;
+    }
+
+    @NotNull
+    public String[] getLongPrefixes() {
+        return longPrefixes;
+    }
+
+    @NotNull
+    private static String misspell(@NotNull String word, @NotNull char[] alphabet, @NotNull Random random) {
+        StringBuilder builder = new StringBuilder(word);
+        int index = random.nextInt(word.length());
+        char c = alphabet[random.nextInt(alphabet.length)];
+        switch (word.length() > 1 ? random.nextInt(4) : 2) {
+            case 0:
+                int next = index < word.length() - 1 ? index + 1 : index - 1;
+                builder.setCharAt(index, word.charAt(next));
+                builder.setCharAt(next, word.charAt(index));
+                break;
+            case 1:
+                builder.deleteCharAt(index);
+                break;
+            case 2:
+                builder.insert(index, c);
+                break;
+            default:
+                builder.setCharAt(index, c);
+        }
+        return builder.toString();
+    }
+
+    @NotNull
+    private static char[] alphabet(@NotNull List<String> words) {
+        SortedSet<Character> chars = new TreeSet<Character>();
+        for (String word : words) {
+            for (int i = 0; i < word.length(); i++) {
+                chars.add(word.charAt(i));
+            }
+        }
+        char[] alphabet = new char[chars.size()];
+        int i = 0;
+        for (Character c : chars) {
+            alphabet[i++] = c;
+        }
+        return alphabet;
+    }
+}
@@ -0,0 +1,326 @@
+/*
+ * Copyright 2007 Sergiy Dubovik, Alexey Efimov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.spellChecker.benchmarks;
+
+import org.intellij.spellChecker.engine.LoadingProgress;
+import org.intellij.spellChecker.engine.SpellChecker;
+import org.intellij.spellChecker.engine.SpellCheckerFactory;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Benchmarks of spell checker engines, every benchmark is run for every engine and bundled dictionary.
+ * <p/>
+ * Run from project directory:
+ * <pre>
+ * java -Xmx1g -cp spellchecker.jar:jazzy-core.jar:benchmarks.jar \
+ *     org.intellij.spellChecker.benchmarks.EngineBenchmarks [-gc] [-wi 3] [-i 5] [-t 1,2,4] [-d dictionaries] [regexp]
+ * </pre>
+ * where <code>-gc</code> adds allocation and collection profile, <code>-wi</code> and <code>-i</code> are
+ * warmup and measurement iterations, <code>-t</code> are counts of threads for <code>*.threads</code>
+ * benchmarks, one and count of processors by default, <code>-d</code> is directory of dictionary plugins, and
+ * <code>regexp</code> selects benchmarks by name and parameters.
+ *
+ * @author Alexey Efimov
+ */
+public final class EngineBenchmarks {
+    private static final int[] THRESHOLDS = {0, 10, 100};
+    private static final int VARIANTS_LIMIT = 100;
+    private static final int USER_WORDS = 1000;
+    private static final int THREADED_CHECKS = 1000000;
+    private static final int THREADED_SUGGESTIONS = 500;
+
+    private EngineBenchmarks() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        boolean gcProfile = false;
+        int warmupIterations = 3;
+        int measurementIterations = 5;
+        int[] threads = getDefaultThreads();
+        File dictionaries = new File("dictionaries");
+        Pattern filter = Pattern.compile(".*");
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if ("-gc".equals(arg)) {
+                gcProfile = true;
+            } else if ("-wi".equals(arg) && i + 1 < args.length) {
+                warmupIterations = Integer.parseInt(args[++i]);
+            } else if ("-i".equals(arg) && i + 1 < args.length) {
+                measurementIterations = Integer.parseInt(args[++i]);
+            } else if ("-t".equals(arg) && i + 1 < args.length) {
+                threads = parseThreads(args[++i]);
+            } else if ("-d".equals(arg) && i + 1 < args.length) {
+                dictionaries = new File(args[++i]);
+            } else if (arg.startsWith("-")) {
+                System.err.println("Usage: EngineBenchmarks [-gc] [-wi <warmup iterations>] [-i <iterations>] "
+                        + "[-t <threads,...>] [-d <dictionaries directory>] [regexp]");
+                System.exit(1);
+            } else {
+                filter = Pattern.compile(arg);
+            }
+        }
+        BenchmarkRunner runner = new BenchmarkRunner(warmupIterations, measurementIterations, gcProfile, System.out);
+        runner.printHeader();
+        for (Language language : Language.values()) {
+            for (SpellCheckerFactory.Engine engine : SpellCheckerFactory.Engine.values()) {
+                // Benchmarks of one engine and language share checker, it is dropped before next ones
+                List<Benchmark> benchmarks = new ArrayList<Benchmark>();
+                addBenchmarks(benchmarks, engine, language, dictionaries, threads);
+                for (Benchmark benchmark : benchmarks) {
+                    if (filter.matcher(benchmark.getName() + ' ' + benchmark.getParameters()).find()) {
+                        runner.run(benchmark);
+                    }
+                }
+            }
+        }
+    }
+
+    @NotNull
+    private static int[] getDefaultThreads() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        return processors > 1 ? new int[]{1, processors} : new int[]{1};
+    }
+
+    @NotNull
+    private static int[] parseThreads(@NotNull String value) {
+        String[] counts = value.split(",");
+        int[] threads = new int[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            threads[i] = Integer.parseInt(counts[i].trim());
+        }
+        return threads;
+    }
+
+    private static void addBenchmarks(@NotNull List<Benchmark> benchmarks, @NotNull final SpellCheckerFactory.Engine engine,
+                                      @NotNull final Language language, @NotNull File dictionaries, @NotNull int[] threads) {
+        final File wordList = language.getWordList(dictionaries);
+        String parameters = engine + " " + language;
+        final Fixture fixture = new Fixture(engine, language, wordList);
+
+        benchmarks.add(new Benchmark("addDictionary", parameters, true) {
+            public int run() throws Exception {
+                SpellChecker checker = SpellCheckerFactory.create(engine);
+                load(checker, language, wordList);
+                return checker.isCorrect(language.name()) ? 1 : 0;
+            }
+        });
+        benchmarks.add(new Benchmark("isCorrect.correct", parameters, false) {
+            private String[] words;
+            private int index;
+
+            public void setUp() throws Exception {
+                words = fixture.getCorpus().getCorrect();
+            }
+
+            public int run() throws Exception {
+                return fixture.getChecker().isCorrect(words[index++ % words.length]) ? 1 : 0;
+            }
+        });
+        benchmarks.add(new Benchmark("isCorrect.misspelled", parameters, false) {
+            private String[] words;
+            private int index;
+
+            public void setUp() throws Exception {
+                words = fixture.getCorpus().getMisspelled();
+            }
+
+            public int run() throws Exception {
+                return fixture.getChecker().isCorrect(words[index++ % words.length]) ? 1 : 0;
+            }
+        });
+        for (final int threshold : THRESHOLDS) {
+            benchmarks.add(new Benchmark("getSuggestions", parameters + " threshold=" + threshold, false) {
+                private String[] words;
+                private int index;
+
+                public void setUp() throws Exception {
+                    words = fixture.getCorpus().getMisspelled();
+                }
+
+                public int run() throws Exception {
+                    return fixture.getChecker().getSuggestions(words[index++ % words.length], threshold).size();
+                }
+            });
+        }
+        benchmarks.add(new Benchmark("getVariants.shortPrefix", parameters, false) {
+            private String[] prefixes;
+            private int index;
+
+            public void setUp() throws Exception {
+                prefixes = fixture.getCorpus().getShortPrefixes();
+            }
+
+            public int run() throws Exception {
+                return fixture.getChecker().getVariants(prefixes[index++ % prefixes.length], VARIANTS_LIMIT).size();
+            }
+        });
+        benchmarks.add(new Benchmark("getVariants.longPrefix", parameters, false) {
+            private String[] prefixes;
+            private int index;
+
+            public void setUp() throws Exception {
+                prefixes = fixture.getCorpus().getLongPrefixes();
+            }
+
+            public int run() throws Exception {
+                return fixture.getChecker().getVariants(prefixes[index++ % prefixes.length], VARIANTS_LIMIT).size();
+            }
+        });
+        for (int count : threads) {
+            // Fixture is not thread safe, checker is taken in set up
+            benchmarks.add(new ThreadedBenchmark("isCorrect.threads", parameters, count, THREADED_CHECKS) {
+                private SpellChecker checker;
+                private String[] words;
+
+                public void setUp() throws Exception {
+                    checker = fixture.getChecker();
+                    String[] correct = fixture.getCorpus().getCorrect();
+                    String[] misspelled = fixture.getCorpus().getMisspelled();
+                    words = new String[correct.length + misspelled.length];
+                    System.arraycopy(correct, 0, words, 0, correct.length);
+                    System.arraycopy(misspelled, 0, words, correct.length, misspelled.length);
+                }
+
+                protected int run(int thread, int operation) throws Exception {
+                    return checker.isCorrect(words[operation % words.length]) ? 1 : 0;
+                }
+            });
+            benchmarks.add(new ThreadedBenchmark("getSuggestions.threads", parameters, count, THREADED_SUGGESTIONS) {
+                private SpellChecker checker;
+                private String[] words;
+
+                public void setUp() throws Exception {
+                    checker = fixture.getChecker();
+                    words = fixture.getCorpus().getMisspelled();
+                }
+
+                protected int run(int thread, int operation) throws Exception {
+                    return checker.getSuggestions(words[operation % words.length], 0).size();
+                }
+            });
+        }
+        benchmarks.add(new Benchmark("reset", parameters, false) {
+            public int run() throws Exception {
+                fixture.getChecker().reset();
+                return 0;
+            }
+        });
+        // Goes last, user words would make misspelled words of corpus correct for other benchmarks
+        benchmarks.add(new Benchmark("reset.userWords", parameters + " words=" + USER_WORDS, false) {
+            private List<String> words;
+
+            public void setUp() throws Exception {
+                String[] misspelled = fixture.getCorpus().getMisspelled();
+                words = new ArrayList<String>(USER_WORDS);
+                for (int i = 0; i < USER_WORDS; i++) {
+                    words.add(misspelled[i % misspelled.length]);
+                }
+            }
+
+            public int run() throws Exception {
+                fixture.getChecker().reset(words, words);
+                return words.size();
+            }
+        });
+    }
+
+    private static void load(@NotNull SpellChecker checker, @NotNull Language language, @NotNull File wordList) throws IOException {
+        InputStream is = new FileInputStream(wordList);
+        try {
+            checker.addDictionary(is, language.getEncoding(), language.getLocale(), wordList.length(), LoadingProgress.NONE);
+        } finally {
+            is.close();
+        }
+    }
+
+    /**
+     * Checker with dictionary and corpus, shared by benchmarks of engine and language and created on first use.
+     */
+    private static final class Fixture {
+        private final SpellCheckerFactory.Engine engine;
+        private final Language language;
+        private final File wordList;
+        private SpellChecker checker;
+        private Corpus corpus;
+
+        private Fixture(@NotNull SpellCheckerFactory.Engine engine, @NotNull Language language, @NotNull File wordList) {
+            this.engine = engine;
+            this.language = language;
+            this.wordList = wordList;
+        }
+
+        @NotNull
+        public SpellChecker getChecker() throws IOException {
+            if (checker == null) {
+                checker = SpellCheckerFactory.create(engine);
+                load(checker, language, wordList);
+            }
+            return checker;
+        }
+
+        @NotNull
+        public Corpus getCorpus() throws IOException {
+            if (corpus == null) {
+                corpus = Corpus.read(wordList, language.getEncoding());
+            }
+            return corpus;
+        }
+    }
+
+    /**
+     * Bundled dictionaries, with the same encodings and locales as in dictionary plugins.
+     */
+    private enum Language {
+        ENGLISH("english", "us-ascii", Locale.ENGLISH),
+        GERMAN("german", "utf-8", Locale.GERMAN),
+        RUSSIAN("russian", "utf-8", new Locale("ru"));
+
+        private final String name;
+        private final String encoding;
+        private final Locale locale;
+
+        Language(@NonNls @NotNull String name, @NonNls @NotNull String encoding, @NotNull Locale locale) {
+            this.name = name;
+            this.encoding = encoding;
+            this.locale = locale;
+        }
+
+        @NotNull
+        public File getWordList(@NotNull File dictionaries) {
+            return new File(dictionaries, name + "/src/dict/" + name + ".0");
+        }
+
+        @NotNull
+        public String getEncoding() {
+            return encoding;
+        }
+
+        @NotNull
+        public Locale getLocale() {
+            return locale;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2007 Sergiy Dubovik, Alexey Efimov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.spellChecker.benchmarks;
+
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Operation run concurrently by several threads, measured in single shot mode.
+ * <p/>
+ * Every run performs the same total count of operations split between threads, so time of run shows
+ * scaling: with linear scaling it falls in proportion to count of threads, up to count of processors.
+ *
+ * @author Alexey Efimov
+ */
+abstract class ThreadedBenchmark extends Benchmark {
+    private final int threads;
+    private final int operations;
+
+    /**
+     * @param name       Name of benchmark
+     * @param parameters Parameters, shown in report with count of threads and operations
+     * @param threads    Count of threads
+     * @param operations Total count of operations per run
+     */
+    protected ThreadedBenchmark(@NonNls @NotNull String name, @NonNls @NotNull String parameters, int threads, int operations) {
+        super(name, parameters + " threads=" + threads + " ops=" + operations, true);
+        this.threads = threads;
+        this.operations = operations;
+    }
+
+    public int run() throws Exception {
+        final int[] values = new int[threads];
+        final Exception[] errors = new Exception[threads];
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            final int thread = i;
+            workers[i] = new Thread(new Runnable() {
+                public void run() {
+                    int value = 0;
+                    try {
+                        // Threads take every n-th operation, so all of them check the same mix of words
+                        for (int operation = thread; operation < operations; operation += threads) {
+                            value ^= ThreadedBenchmark.this.run(thread, operation);
+                        }
+                    } catch (Exception e) {
+                        errors[thread] = e;
+                    }
+                    values[thread] = value;
+                }
+            });
+        }
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        int value = 0;
+        for (int i = 0; i < threads; i++) {
+            workers[i].join();
+            if (errors[i] != null) {
+                throw errors[i];
+            }
+            value ^= values[i];
+        }
+        return value;
+    }
+
+    /**
+     * Run operation once, called concurrently by threads of benchmark.
+     *
+     * @param thread    Index of thread
+     * @param operation Index of operation in run
+     * @return Value derived from result of operation, so operation can't be eliminated
+     * @throws Exception if operation failed
+     */
+    protected abstract int run(int thread, int operation) throws Exception;
+}
@@ -1,12 +1,10 @@
 package org.intellij.spellChecker;
 
 import com.intellij.openapi.components.ApplicationComponent;
-import com.intellij.openapi.diagnostic.Logger;
 import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.NotNull;
 
-import java.io.IOException;
-import java.io.InputStream;
+import java.util.Locale;
 
 /**
  * English dictionary.
@@ -14,9 +12,14 @@ import java.io.InputStream;
  * @author Alexey Efimov
  */
 public class SpellCheckerEnglishDictionary implements ApplicationComponent {
-    private static final Logger LOG = Logger.getInstance("#SpellCheckerEnglishDictionary");
     @NonNls
     private static final String DICT_URL = "/dict/english.0";
+    @NonNls
+    private static final String COMPILED_DICT_URL = "/dict/english.dic";
+    @NonNls
+    private static final String US_ASCII = "us-ascii";
+    @NonNls
+    private static final String ALPHABET = "'ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
 
     private final SpellCheckerManager manager;
 
@@ -31,14 +34,7 @@ public class SpellCheckerEnglishDictionary implements ApplicationComponent {
     }
 
     public void initComponent() {
-        InputStream is = SpellCheckerEnglishDictionary.class.getResourceAsStream(DICT_URL);
-        if (is != null) {
-            try {
-                manager.addDictionary(is);
-            } catch (IOException e) {
-                LOG.warn(e);
-            }
-        }
+        manager.registerDictionary(new BundledDictionary(SpellCheckerEnglishDictionary.class, COMPILED_DICT_URL, DICT_URL, US_ASCII, Locale.ENGLISH, ALPHABET));
     }
 
     public void disposeComponent() {
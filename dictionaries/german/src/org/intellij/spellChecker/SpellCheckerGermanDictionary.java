@@ -1,22 +1,22 @@
 package org.intellij.spellChecker;
 
 import com.intellij.openapi.components.ApplicationComponent;
-import com.intellij.openapi.diagnostic.Logger;
 import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.NotNull;
 
-import java.io.IOException;
-import java.io.InputStream;
 import java.util.Locale;
 
 /**
  * @author Sergiy Dubovik
  */
 public class SpellCheckerGermanDictionary implements ApplicationComponent {
-    private static final Logger LOG = Logger.getInstance("#SpellCheckerGermanDictionary");
     @NonNls
     private static final String DICT_URL = "/dict/german.0";
     @NonNls
+    private static final String COMPILED_DICT_URL = "/dict/german.dic";
+    @NonNls
+    private static final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz\u00c4\u00d6\u00dc\u00df\u00e0\u00e2\u00e4\u00e9\u00ea\u00f1\u00f6\u00fc";
+    @NonNls
     private static final String UTF_8 = "utf-8";
 
     private final SpellCheckerManager manager;
@@ -32,14 +32,7 @@ public class SpellCheckerGermanDictionary implements ApplicationComponent {
     }
 
     public void initComponent() {
-        InputStream is = SpellCheckerGermanDictionary.class.getResourceAsStream(DICT_URL);
-        if (is != null) {
-            try {
-                manager.addDictionary(is, UTF_8, Locale.GERMAN);
-            } catch (IOException e) {
-                LOG.warn(e);
-            }
-        }
+        manager.registerDictionary(new BundledDictionary(SpellCheckerGermanDictionary.class, COMPILED_DICT_URL, DICT_URL, UTF_8, Locale.GERMAN, ALPHABET));
     }
 
     public void disposeComponent() {
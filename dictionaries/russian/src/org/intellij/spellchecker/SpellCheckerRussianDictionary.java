@@ -1,25 +1,26 @@
 package org.intellij.spellchecker;
 
 import com.intellij.openapi.components.ApplicationComponent;
-import com.intellij.openapi.diagnostic.Logger;
+import org.intellij.spellChecker.BundledDictionary;
 import org.intellij.spellChecker.SpellCheckerManager;
 import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.NotNull;
 
-import java.io.IOException;
-import java.io.InputStream;
 import java.util.Locale;
 
 /**
  * @author Sergiy Dubovik
  */
 public class SpellCheckerRussianDictionary implements ApplicationComponent {
-    private static final Logger LOG = Logger.getInstance("#SpellCheckerRussianDictionary");
     @NonNls
     private static final Locale LOCALE = new Locale("ru");
     @NonNls
     private static final String DICT_URL = "/dict/russian.0";
     @NonNls
+    private static final String COMPILED_DICT_URL = "/dict/russian.dic";
+    @NonNls
+    private static final String ALPHABET = "\u0401\u0410\u0411\u0412\u0413\u0414\u0415\u0416\u0417\u0418\u0419\u041a\u041b\u041c\u041d\u041e\u041f\u0420\u0421\u0422\u0423\u0424\u0425\u0426\u0427\u0428\u0429\u042a\u042b\u042c\u042d\u042e\u042f\u0430\u0431\u0432\u0433\u0434\u0435\u0436\u0437\u0438\u0439\u043a\u043b\u043c\u043d\u043e\u043f\u0440\u0441\u0442\u0443\u0444\u0445\u0446\u0447\u0448\u0449\u044a\u044b\u044c\u044d\u044e\u044f\u0451";
+    @NonNls
     private static final String UTF_8 = "utf-8";
 
     private final SpellCheckerManager manager;
@@ -35,14 +36,7 @@ public class SpellCheckerRussianDictionary implements ApplicationComponent {
     }
 
     public void initComponent() {
-        InputStream is = SpellCheckerRussianDictionary.class.getResourceAsStream(DICT_URL);
-        if (is != null) {
-            try {
-                manager.addDictionary(is, UTF_8, LOCALE);
-            } catch (IOException e) {
-                LOG.warn(e);
-            }
-        }
+        manager.registerDictionary(new BundledDictionary(SpellCheckerRussianDictionary.class, COMPILED_DICT_URL, DICT_URL, UTF_8, LOCALE, ALPHABET));
     }
 
     public void disposeComponent() {
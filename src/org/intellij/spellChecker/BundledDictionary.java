@@ -0,0 +1,181 @@
+/*
+ * Copyright 2007 Sergiy Dubovik, Alexey Efimov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.spellChecker;
+
+import org.intellij.spellChecker.engine.LoadingProgress;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.BitSet;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dictionary bundled into plugin jar. Dictionary is registered with its locale and alphabet, and words are loaded
+ * only when {@link SpellCheckerManager} meets word which needs this alphabet.
+ *
+ * @author Alexey Efimov
+ */
+public final class BundledDictionary {
+    private static final int NEW = 0;
+    private static final int REQUESTED = 1;
+    private static final int LOADING = 2;
+    private static final int LOADED = 3;
+
+    private static final LoadingProgress INTERRUPTIBLE = new LoadingProgress() {
+        public void setFraction(double fraction) {
+        }
+
+        public boolean isCanceled() {
+            return Thread.currentThread().isInterrupted();
+        }
+    };
+
+    private final Class<?> owner;
+    private final String compiledResource;
+    private final String resource;
+    private final String encoding;
+    private final Locale locale;
+    private final BitSet alphabet = new BitSet();
+    private final int alphabetSize;
+    private final AtomicInteger state = new AtomicInteger(NEW);
+
+    /**
+     * Dictionary in default encoding and locale.
+     *
+     * @param owner            Class to load resources with
+     * @param compiledResource Resource name of dictionary precompiled by
+     *                         {@link org.intellij.spellChecker.engine.DictionaryCompiler}
+     * @param resource         Resource name of plain dictionary, used if there is no compiled one and compiled
+     *                         once into snapshot in IDEA system directory
+     * @param alphabet         Characters of dictionary words
+     */
+    public BundledDictionary(@NotNull Class<?> owner, @NonNls @NotNull String compiledResource,
+                             @NonNls @NotNull String resource, @NonNls @NotNull String alphabet) {
+        this(owner, compiledResource, resource, Charset.defaultCharset().name(), Locale.getDefault(), alphabet);
+    }
+
+    /**
+     * @param owner            Class to load resources with
+     * @param compiledResource Resource name of dictionary precompiled by
+     *                         {@link org.intellij.spellChecker.engine.DictionaryCompiler}
+     * @param resource         Resource name of plain dictionary, used if there is no compiled one and compiled
+     *                         once into snapshot in IDEA system directory
+     * @param encoding         Encoding of plain dictionary
+     * @param locale           Locale of dictionary
+     * @param alphabet         Characters of dictionary words
+     */
+    public BundledDictionary(@NotNull Class<?> owner, @NonNls @NotNull String compiledResource,
+                             @NonNls @NotNull String resource, @NonNls @NotNull String encoding,
+                             @NotNull Locale locale, @NonNls @NotNull String alphabet) {
+        this.owner = owner;
+        this.compiledResource = compiledResource;
+        this.resource = resource;
+        this.encoding = encoding;
+        this.locale = locale;
+        for (int i = 0; i < alphabet.length(); i++) {
+            this.alphabet.set(alphabet.charAt(i));
+        }
+        this.alphabetSize = this.alphabet.cardinality();
+    }
+
+    @NotNull
+    public Locale getLocale() {
+        return locale;
+    }
+
+    public int getAlphabetSize() {
+        return alphabetSize;
+    }
+
+    /**
+     * Check that all characters of word from text range are in alphabet of dictionary.
+     *
+     * @param text  Text
+     * @param start Start offset of word
+     * @param end   End offset of word
+     * @return <code>true</code> if dictionary may contain word
+     */
+    public boolean covers(@NotNull CharSequence text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!alphabet.get(text.charAt(i))) {
+                return false;
+            }
+        }
+        return end > start;
+    }
+
+    /**
+     * @return <code>true</code> if dictionary is loaded or failed to load
+     */
+    public boolean isLoaded() {
+        return state.get() == LOADED;
+    }
+
+    /**
+     * @return <code>true</code> only for first call, or first call after canceled loading, so dictionary is loaded
+     *         once
+     */
+    boolean request() {
+        return state.compareAndSet(NEW, REQUESTED);
+    }
+
+    /**
+     * Withdraw request of dictionary which loading is canceled before it started, so dictionary can be requested
+     * again.
+     *
+     * @return <code>true</code> if request is withdrawn, <code>false</code> if loading is already started
+     */
+    boolean cancel() {
+        return state.compareAndSet(REQUESTED, NEW);
+    }
+
+    /**
+     * Load requested dictionary words into manager. Dictionary which failed to load is not loaded again, canceled
+     * one can be requested again.
+     *
+     * @param manager Manager
+     * @throws IOException if dictionary load with problems
+     * @throws CancellationException if loading thread is interrupted, or request is withdrawn
+     */
+    void load(@NotNull SpellCheckerManager manager) throws IOException {
+        if (!state.compareAndSet(REQUESTED, LOADING)) {
+            throw new CancellationException();
+        }
+        boolean canceled = false;
+        try {
+            if (!manager.addCompiledDictionary(owner, compiledResource)) {
+                URL url = owner.getResource(resource);
+                if (url != null) {
+                    manager.addDictionary(url, encoding, locale, INTERRUPTIBLE);
+                }
+            }
+        } catch (CancellationException e) {
+            canceled = true;
+            throw e;
+        } finally {
+            state.set(canceled ? NEW : LOADED);
+        }
+    }
+
+    public String toString() {
+        return locale + ":" + compiledResource;
+    }
+}
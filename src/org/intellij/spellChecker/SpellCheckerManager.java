@@ -18,20 +18,37 @@ package org.intellij.spellChecker;
 import com.intellij.codeHighlighting.HighlightDisplayLevel;
 import com.intellij.codeInsight.daemon.DaemonCodeAnalyzer;
 import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
 import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.fileEditor.FileEditorManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.project.ProjectManager;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.intellij.spellChecker.engine.CompiledDictionary;
+import org.intellij.spellChecker.engine.DictionarySnapshot;
+import org.intellij.spellChecker.engine.LoadingProgress;
 import org.intellij.spellChecker.engine.SpellChecker;
 import org.intellij.spellChecker.engine.SpellCheckerFactory;
 import org.intellij.spellChecker.options.SpellCheckerConfiguration;
+import org.intellij.spellChecker.util.BoundedCache;
 import org.intellij.spellChecker.util.Strings;
+import org.intellij.spellChecker.util.WordKey;
 import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.NotNull;
 
-import java.io.IOException;
-import java.io.InputStream;
+import javax.management.JMException;
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
 import java.nio.charset.Charset;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Spell checker inspection provider.
@@ -40,17 +57,56 @@ import java.util.*;
  */
 public final class SpellCheckerManager {
     private static final int MAX_SUGGESTIONS_THRESHOLD = 10;
+    private static final int MAX_VARIANTS = 100;
+    private static final int MAX_CACHED_VERDICTS = 16 * 1024;
+    private static final int MAX_CACHED_SUGGESTIONS = 1024;
+    @NonNls
+    private static final String SYSTEM_DIRECTORY = "spellchecker";
+    @NonNls
+    private static final String FILE_PROTOCOL = "file";
+    @NonNls
+    private static final String SNAPSHOT_EXTENSION = ".snapshot";
+    @NonNls
+    private static final String LOADER_THREAD_NAME = "Spell Checker Dictionary Loader";
+    private static final Logger LOG = Logger.getInstance("#SpellCheckerManager");
+    private static final int LOADER_THREADS = Runtime.getRuntime().availableProcessors();
 
     public static SpellCheckerManager getInstance() {
         return ServiceManager.getService(SpellCheckerManager.class);
     }
 
     private final SpellCheckerConfiguration configuration;
+    // Serializes changes of configured words with changes of checker, so checker never misses configured word
+    private final Object configurationLock = new Object();
     private final SpellChecker spellChecker = SpellCheckerFactory.create();
+    private final BoundedCache<WordKey, Boolean> verdicts = new BoundedCache<WordKey, Boolean>(MAX_CACHED_VERDICTS);
+    private final BoundedCache<SuggestionsKey, List<String>> suggestions = new BoundedCache<SuggestionsKey, List<String>>(MAX_CACHED_SUGGESTIONS);
+    private final SpellCheckerStatistics statistics = new SpellCheckerStatistics(verdicts, suggestions);
+    private final List<BundledDictionary> bundledDictionaries = new CopyOnWriteArrayList<BundledDictionary>();
+    private final AtomicInteger pendingDictionaries = new AtomicInteger();
+    // Loads which are not done yet, every load removes itself when it is done
+    private final List<Future<?>> dictionaryLoads = new CopyOnWriteArrayList<Future<?>>();
+    private final ExecutorService dictionaryLoader = Executors.newFixedThreadPool(LOADER_THREADS, new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, LOADER_THREAD_NAME + " " + count.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }
+    });
 
     public SpellCheckerManager(SpellCheckerConfiguration configuration) {
         this.configuration = configuration;
         reloadConfiguration();
+        try {
+            statistics.register(ManagementFactory.getPlatformMBeanServer());
+        } catch (JMException e) {
+            LOG.info("Can't register spell checker statistics", e);
+        } catch (SecurityException e) {
+            LOG.info("Can't register spell checker statistics", e);
+        }
     }
 
     @NotNull
@@ -63,34 +119,246 @@ public final class SpellCheckerManager {
         return spellChecker;
     }
 
+    /**
+     * Return cache of {@link #hasProblem(String)} verdicts, cache is invalidated on every change of dictionaries
+     * or ignored words.
+     *
+     * @return Verdicts cache with hit and miss statistics
+     */
+    @NotNull
+    public BoundedCache<WordKey, Boolean> getVerdictCache() {
+        return verdicts;
+    }
+
+    /**
+     * Return statistics of checks, suggestions, variants and dictionary loads, also available through JMX.
+     *
+     * @return Statistics
+     */
+    @NotNull
+    public SpellCheckerStatistics getStatistics() {
+        return statistics;
+    }
+
     public boolean hasProblem(@NotNull String word) {
-        return !isIgnored(word) && !spellChecker.isCorrect(word);
+        return hasProblem(word, 0, word.length());
     }
 
-    private boolean isIgnored(@NotNull String word) {
-        return spellChecker.isIgnored(word.toLowerCase());
+    /**
+     * Check word from text range, word is not copied unless verdict is cached.
+     *
+     * @param text  Text
+     * @param start Start offset of word
+     * @param end   End offset of word
+     * @return <code>true</code> if word is misspelled
+     */
+    public boolean hasProblem(@NotNull CharSequence text, int start, int end) {
+        if (!statistics.isEnabled()) {
+            return check(text, start, end);
+        }
+        long started = System.nanoTime();
+        try {
+            return check(text, start, end);
+        } finally {
+            statistics.getCheckLatency().record(System.nanoTime() - started);
+        }
     }
 
-    public List<String> getVariants(@NotNull String prefix) {
-        return spellChecker.getVariants(prefix);
+    private boolean check(@NotNull CharSequence text, int start, int end) {
+        WordKey key = WordKey.of(text, start, end);
+        Boolean verdict = verdicts.get(key);
+        if (verdict == null) {
+            if (isWaitingForDictionary(text, start, end)) {
+                // Not reported until dictionary is loaded, verdict is not cached
+                return false;
+            }
+            int generation = verdicts.getGeneration();
+            // Ignored words are kept lower cased, checker looks up lower cased word itself
+            verdict = !spellChecker.isIgnored(text, start, end) && !spellChecker.isCorrect(text, start, end);
+            verdicts.put(key.copy(), verdict, generation);
+        }
+        return verdict;
     }
 
+    /**
+     * Register bundled dictionary. Dictionary of default language starts loading in background at once, other
+     * dictionaries are loaded in background when first word which needs their alphabet is checked, or by
+     * {@link #loadAllDictionaries()}. Words are checked against dictionaries loaded so far, so startup never waits
+     * for dictionaries.
+     *
+     * @param dictionary Dictionary
+     */
+    public void registerDictionary(@NotNull BundledDictionary dictionary) {
+        synchronized (bundledDictionaries) {
+            int index = 0;
+            while (index < bundledDictionaries.size() &&
+                    bundledDictionaries.get(index).getAlphabetSize() <= dictionary.getAlphabetSize()) {
+                index++;
+            }
+            bundledDictionaries.add(index, dictionary);
+            pendingDictionaries.incrementAndGet();
+        }
+        if (isDefault(dictionary)) {
+            load(dictionary);
+        }
+    }
+
+    private static boolean isDefault(@NotNull BundledDictionary dictionary) {
+        return Locale.getDefault().getLanguage().equals(dictionary.getLocale().getLanguage());
+    }
+
+    /**
+     * Return future which is done when all dictionaries requested so far are loaded. Dictionaries requested later
+     * are not awaited by this future. Cancellation of future interrupts loading of dictionaries. Only loads which
+     * are not done yet are kept, so future of idle manager is done at once.
+     *
+     * @return Readiness future
+     */
     @NotNull
-    public List<String> getSuggestions(@NotNull String word) {
-        if (!isIgnored(word) && !spellChecker.isCorrect(word)) {
-            List<String> suggestions = spellChecker.getSuggestions(word, MAX_SUGGESTIONS_THRESHOLD);
-            if (suggestions.size() != 0) {
-                boolean capitalized = Strings.isCapitalized(word);
-                boolean upperCases = Strings.isUpperCase(word);
-
-                if (capitalized) {
-                    Strings.capitalize(suggestions);
-                } else if (upperCases) {
-                    Strings.upperCase(suggestions);
+    public Future<?> getReadiness() {
+        return new Readiness(new ArrayList<Future<?>>(dictionaryLoads));
+    }
+
+    /**
+     * Request loading of all registered dictionaries, every dictionary is loaded by separate task of background pool.
+     *
+     * @return Future which is done when all registered dictionaries are loaded
+     */
+    @NotNull
+    public Future<?> loadAllDictionaries() {
+        for (BundledDictionary dictionary : bundledDictionaries) {
+            load(dictionary);
+        }
+        return getReadiness();
+    }
+
+    /**
+     * Check that word needs dictionary which is not loaded yet, and request loading of this dictionary. Word
+     * covered by alphabet of default language needs only dictionary of default language, so typos in plain Latin
+     * words neither load German for English user nor wait for it. Other words need dictionary with the smallest
+     * alphabet covering them, e.g. words with umlauts load German and Cyrillic words load Russian.
+     *
+     * @param text  Text
+     * @param start Start offset of word
+     * @param end   End offset of word
+     * @return <code>true</code> if word can't be checked until dictionary is loaded
+     */
+    private boolean isWaitingForDictionary(@NotNull CharSequence text, int start, int end) {
+        if (pendingDictionaries.get() == 0) {
+            return false;
+        }
+        BundledDictionary needed = null;
+        for (BundledDictionary dictionary : bundledDictionaries) {
+            if (dictionary.covers(text, start, end)) {
+                if (isDefault(dictionary)) {
+                    needed = dictionary;
+                    break;
+                }
+                if (needed == null) {
+                    needed = dictionary;
                 }
             }
+        }
+        if (needed == null || needed.isLoaded()) {
+            return false;
+        }
+        load(needed);
+        return true;
+    }
+
+    private void load(@NotNull final BundledDictionary dictionary) {
+        if (!dictionary.request()) {
+            return;
+        }
+        FutureTask<Object> task = new FutureTask<Object>(new Runnable() {
+            public void run() {
+                try {
+                    dictionary.load(SpellCheckerManager.this);
+                } catch (IOException e) {
+                    LOG.warn("Can't load dictionary " + dictionary, e);
+                } catch (CancellationException e) {
+                    // Dictionary stays pending, words needing it are checked again and request it again
+                    restartAllInspections();
+                    return;
+                }
+                pendingDictionaries.decrementAndGet();
+                restartAllInspections();
+            }
+        }, null) {
+            protected void done() {
+                dictionaryLoads.remove(this);
+                // Task canceled before it started never runs
+                if (isCancelled() && dictionary.cancel()) {
+                    restartAllInspections();
+                }
+            }
+        };
+        dictionaryLoads.add(task);
+        dictionaryLoader.execute(task);
+    }
+
+    /**
+     * Return completion variants for prefix.
+     *
+     * @param prefix Prefix
+     * @return Sorted variants, at most {@link #MAX_VARIANTS}
+     */
+    public List<String> getVariants(@NotNull String prefix) {
+        if (!statistics.isEnabled()) {
+            return spellChecker.getVariants(prefix, MAX_VARIANTS);
+        }
+        long started = System.nanoTime();
+        try {
+            return spellChecker.getVariants(prefix, MAX_VARIANTS);
+        } finally {
+            statistics.getVariantsLatency().record(System.nanoTime() - started);
+        }
+    }
 
-            return suggestions;
+    /**
+     * Return cache of suggestions, cache is invalidated on every change of dictionaries or ignored words.
+     *
+     * @return Suggestions cache with hit and miss statistics
+     */
+    @NotNull
+    public BoundedCache<SuggestionsKey, List<String>> getSuggestionsCache() {
+        return suggestions;
+    }
+
+    @NotNull
+    public List<String> getSuggestions(@NotNull String word) {
+        if (!statistics.isEnabled()) {
+            return suggest(word);
+        }
+        long started = System.nanoTime();
+        try {
+            return suggest(word);
+        } finally {
+            statistics.getSuggestionsLatency().record(System.nanoTime() - started);
+        }
+    }
+
+    @NotNull
+    private List<String> suggest(@NotNull String word) {
+        if (check(word, 0, word.length())) {
+            boolean capitalized = Strings.isCapitalized(word);
+            boolean upperCases = Strings.isUpperCase(word);
+            // Case of capitalized and upper cased words is restored after look up
+            String normalized = capitalized || upperCases ? word.toLowerCase() : word;
+            SuggestionsKey key = new SuggestionsKey(normalized, MAX_SUGGESTIONS_THRESHOLD);
+            List<String> cached = suggestions.get(key);
+            if (cached == null) {
+                int generation = suggestions.getGeneration();
+                cached = Collections.unmodifiableList(spellChecker.getSuggestions(normalized, MAX_SUGGESTIONS_THRESHOLD));
+                suggestions.put(key, cached, generation);
+            }
+            List<String> result = new ArrayList<String>(cached);
+            if (capitalized) {
+                Strings.capitalize(result);
+            } else if (upperCases) {
+                Strings.upperCase(result);
+            }
+            return result;
         }
         return Collections.emptyList();
     }
@@ -125,43 +393,241 @@ public final class SpellCheckerManager {
      * @throws java.io.IOException if dictionary load with problems
      */
     public void addDictionary(@NotNull InputStream inputStream, @NonNls String encoding, @NonNls @NotNull Locale locale) throws IOException {
-        spellChecker.addDictionary(inputStream, encoding, locale);
+        addDictionary(inputStream, encoding, locale, -1, LoadingProgress.NONE);
+    }
+
+    /**
+     * Load dictionary from stream in one pass.
+     *
+     * @param inputStream Dictionary input stream
+     * @param encoding    Encoding
+     * @param locale      Locale of dictionary
+     * @param length      Length of stream in bytes, or -1 if unknown
+     * @param progress    Progress of loading
+     * @throws java.io.IOException if dictionary load with problems
+     * @throws java.util.concurrent.CancellationException
+     *                             if progress is canceled
+     */
+    public void addDictionary(@NotNull InputStream inputStream, @NonNls String encoding, @NonNls @NotNull Locale locale,
+                              long length, @NotNull LoadingProgress progress) throws IOException {
+        long started = System.nanoTime();
+        spellChecker.addDictionary(inputStream, encoding, locale, length, progress);
+        statistics.getDictionaryLoadLatency().record(System.nanoTime() - started);
+        invalidateCaches();
+    }
+
+    /**
+     * Load dictionary from word list through snapshot in IDEA system directory. First load compiles word list and
+     * writes snapshot, later loads map snapshot while word list, its encoding and engine version are the same.
+     *
+     * @param wordList Word list, one word per line
+     * @param encoding Encoding
+     * @param locale   Locale of dictionary
+     * @param progress Progress of compiling
+     * @throws java.io.IOException if dictionary load with problems
+     * @throws java.util.concurrent.CancellationException
+     *                             if progress is canceled
+     */
+    public void addDictionary(@NotNull URL wordList, @NonNls String encoding, @NotNull Locale locale,
+                              @NotNull LoadingProgress progress) throws IOException {
+        File snapshot = new File(new File(PathManager.getSystemPath(), SYSTEM_DIRECTORY), getFileName(wordList) + SNAPSHOT_EXTENSION);
+        long started = System.nanoTime();
+        spellChecker.addDictionary(DictionarySnapshot.load(wordList, Charset.forName(encoding), locale, snapshot, progress));
+        statistics.getDictionaryLoadLatency().record(System.nanoTime() - started);
+        invalidateCaches();
+    }
+
+    /**
+     * Load dictionary precompiled by {@link org.intellij.spellChecker.engine.DictionaryCompiler}. Dictionary is mapped
+     * to memory, dictionary packed into plugin jar is extracted once into IDEA system directory.
+     *
+     * @param owner    Class to load resource with
+     * @param resource Resource name of compiled dictionary
+     * @return <code>true</code> if dictionary is found and loaded
+     * @throws java.io.IOException if dictionary load with problems
+     */
+    public boolean addCompiledDictionary(@NotNull Class<?> owner, @NonNls @NotNull String resource) throws IOException {
+        URL url = owner.getResource(resource);
+        if (url == null) {
+            return false;
+        }
+        long started = System.nanoTime();
+        spellChecker.addDictionary(CompiledDictionary.map(toFile(url)));
+        statistics.getDictionaryLoadLatency().record(System.nanoTime() - started);
+        invalidateCaches();
+        return true;
+    }
+
+    @NotNull
+    private static File toFile(@NotNull URL url) throws IOException {
+        if (FILE_PROTOCOL.equals(url.getProtocol())) {
+            try {
+                return new File(url.toURI());
+            } catch (URISyntaxException e) {
+                // Fall back to extraction
+            }
+        }
+        File file = new File(new File(PathManager.getSystemPath(), SYSTEM_DIRECTORY), getFileName(url));
+        URLConnection connection = url.openConnection();
+        if (!file.isFile() || file.length() != connection.getContentLength() || file.lastModified() < connection.getLastModified()) {
+            File directory = file.getParentFile();
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new IOException("Can't create directory " + directory);
+            }
+            File temp = File.createTempFile(file.getName(), null, directory);
+            InputStream is = connection.getInputStream();
+            try {
+                OutputStream os = new FileOutputStream(temp);
+                try {
+                    byte[] buffer = new byte[64 * 1024];
+                    int read;
+                    while ((read = is.read(buffer)) > 0) {
+                        os.write(buffer, 0, read);
+                    }
+                } finally {
+                    os.close();
+                }
+            } finally {
+                is.close();
+            }
+            if ((file.exists() && !file.delete()) || !temp.renameTo(file)) {
+                temp.delete();
+                throw new IOException("Can't extract dictionary to " + file);
+            }
+        }
+        return file;
+    }
+
+    @NotNull
+    private static String getFileName(@NotNull URL url) {
+        String path = url.getPath();
+        return path.substring(path.lastIndexOf('/') + 1);
     }
 
     public void addToDictionary(@NotNull String word) {
         String lowerCased = word.toLowerCase();
-        configuration.USER_DICTIONARY_WORDS.add(lowerCased);
-        spellChecker.addToDictionary(lowerCased);
+        synchronized (configurationLock) {
+            if (!configuration.USER_DICTIONARY_WORDS.add(lowerCased)) {
+                return;
+            }
+            spellChecker.addToDictionary(lowerCased);
+            invalidateCaches();
+        }
+        restartInspections(Collections.singleton(lowerCased));
     }
 
     public void ignoreAll(@NotNull String word) {
         String lowerCased = word.toLowerCase();
-        configuration.IGNORED_WORDS.add(lowerCased);
-        spellChecker.ignoreAll(lowerCased);
+        synchronized (configurationLock) {
+            if (!configuration.IGNORED_WORDS.add(lowerCased)) {
+                return;
+            }
+            spellChecker.ignoreAll(lowerCased);
+            invalidateCaches();
+        }
+        restartInspections(Collections.singleton(lowerCased));
+    }
+
+    /**
+     * Apply edited user dictionary and ignored words. Only added and removed words are changed, and highlighting
+     * is restarted only in projects which have open files with these words.
+     *
+     * @param userDictionaryWords New user dictionary words
+     * @param ignoredWords        New ignored words
+     */
+    public void applyChanges(@NotNull Set<String> userDictionaryWords, @NotNull Set<String> ignoredWords) {
+        Set<String> words = normalize(userDictionaryWords);
+        Set<String> ignored = normalize(ignoredWords);
+        Set<String> affected = new HashSet<String>();
+        synchronized (configurationLock) {
+            Set<String> addedWords = difference(words, configuration.USER_DICTIONARY_WORDS);
+            Set<String> removedWords = difference(configuration.USER_DICTIONARY_WORDS, words);
+            Set<String> addedIgnored = difference(ignored, configuration.IGNORED_WORDS);
+            Set<String> removedIgnored = difference(configuration.IGNORED_WORDS, ignored);
+            affected.addAll(addedWords);
+            affected.addAll(removedWords);
+            affected.addAll(addedIgnored);
+            affected.addAll(removedIgnored);
+            if (affected.isEmpty()) {
+                return;
+            }
+            configuration.USER_DICTIONARY_WORDS.removeAll(removedWords);
+            configuration.USER_DICTIONARY_WORDS.addAll(addedWords);
+            configuration.IGNORED_WORDS.removeAll(removedIgnored);
+            configuration.IGNORED_WORDS.addAll(addedIgnored);
+            spellChecker.removeAllFromDictionary(removedWords);
+            spellChecker.addAllToDictionary(addedWords);
+            for (String word : removedIgnored) {
+                spellChecker.unignore(word);
+            }
+            for (String word : addedIgnored) {
+                spellChecker.ignoreAll(word);
+            }
+            invalidateCaches();
+        }
+        restartInspections(affected);
+    }
+
+    private static Set<String> difference(Set<String> from, Set<String> words) {
+        Set<String> difference = new HashSet<String>();
+        for (String word : from) {
+            if (!words.contains(word)) {
+                difference.add(word);
+            }
+        }
+        return difference;
+    }
+
+    private void invalidateCaches() {
+        verdicts.invalidate();
+        suggestions.invalidate();
     }
 
     public final Set<String> getIgnoredWords() {
         return configuration.IGNORED_WORDS;
     }
 
+    /**
+     * Reload user and ignored words. New words are published by spell checker at once, so inspections running
+     * concurrently see either previous or new configuration and never wait for reload.
+     */
     private void reloadConfiguration() {
-        spellChecker.reset();
-        for (String word : ejectAll(configuration.IGNORED_WORDS)) {
-            ignoreAll(word);
-        }
-        for (String word : ejectAll(configuration.USER_DICTIONARY_WORDS)) {
-            addToDictionary(word);
+        synchronized (configurationLock) {
+            // Configured words are lower cased when they are added or migrated
+            spellChecker.reset(configuration.USER_DICTIONARY_WORDS, configuration.IGNORED_WORDS);
+            invalidateCaches();
         }
     }
 
     public void reloadAndRestartInspections() {
         reloadConfiguration();
+        restartAllInspections();
+    }
+
+    private static void restartAllInspections() {
         ApplicationManager.getApplication().invokeLater(
                 new Runnable() {
                     public void run() {
-                        Project[] projects = ProjectManager.getInstance().getOpenProjects();
-                        for (Project project : projects) {
-                            if (project.isInitialized() && project.isOpen() && !project.isDefault()) {
+                        for (Project project : getOpenProjects()) {
+                            DaemonCodeAnalyzer.getInstance(project).restart();
+                        }
+                    }
+                }
+        );
+    }
+
+    /**
+     * Restart highlighting in projects which have open files with given words. Files which are not open are
+     * highlighted from scratch when they are opened.
+     *
+     * @param words Lower cased words
+     */
+    private static void restartInspections(@NotNull final Collection<String> words) {
+        ApplicationManager.getApplication().invokeLater(
+                new Runnable() {
+                    public void run() {
+                        for (Project project : getOpenProjects()) {
+                            if (hasOpenFileWithAnyOf(project, words)) {
                                 DaemonCodeAnalyzer.getInstance(project).restart();
                             }
                         }
@@ -170,9 +636,118 @@ public final class SpellCheckerManager {
         );
     }
 
-    private HashSet<String> ejectAll(Set<String> from) {
-        HashSet<String> words = new HashSet<String>(from);
-        from.clear();
+    @NotNull
+    private static List<Project> getOpenProjects() {
+        List<Project> projects = new ArrayList<Project>();
+        for (Project project : ProjectManager.getInstance().getOpenProjects()) {
+            if (project.isInitialized() && project.isOpen() && !project.isDefault()) {
+                projects.add(project);
+            }
+        }
+        return projects;
+    }
+
+    private static boolean hasOpenFileWithAnyOf(@NotNull Project project, @NotNull Collection<String> words) {
+        FileDocumentManager documentManager = FileDocumentManager.getInstance();
+        for (VirtualFile file : FileEditorManager.getInstance(project).getOpenFiles()) {
+            Document document = documentManager.getDocument(file);
+            if (document != null) {
+                CharSequence text = document.getCharsSequence();
+                for (String word : words) {
+                    if (Strings.containsIgnoreCase(text, word)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static Set<String> normalize(Set<String> from) {
+        Set<String> words = new HashSet<String>(from.size() * 4 / 3 + 1);
+        for (String word : from) {
+            words.add(word.toLowerCase());
+        }
         return words;
     }
+
+    /**
+     * Key of cached suggestions.
+     */
+    public static final class SuggestionsKey {
+        private final String word;
+        private final int threshold;
+
+        private SuggestionsKey(@NotNull String word, int threshold) {
+            this.word = word;
+            this.threshold = threshold;
+        }
+
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SuggestionsKey)) {
+                return false;
+            }
+            SuggestionsKey key = (SuggestionsKey) o;
+            return threshold == key.threshold && word.equals(key.word);
+        }
+
+        public int hashCode() {
+            return 31 * word.hashCode() + threshold;
+        }
+    }
+
+    /**
+     * Future of several dictionary loads.
+     */
+    private static final class Readiness implements Future<Object> {
+        private final List<Future<?>> loads;
+
+        private Readiness(@NotNull List<Future<?>> loads) {
+            this.loads = loads;
+        }
+
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = false;
+            for (Future<?> load : loads) {
+                cancelled |= load.cancel(mayInterruptIfRunning);
+            }
+            return cancelled;
+        }
+
+        public boolean isCancelled() {
+            for (Future<?> load : loads) {
+                if (load.isCancelled()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public boolean isDone() {
+            for (Future<?> load : loads) {
+                if (!load.isDone()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        public Object get() throws InterruptedException, ExecutionException {
+            for (Future<?> load : loads) {
+                load.get();
+            }
+            return null;
+        }
+
+        public Object get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            for (Future<?> load : loads) {
+                load.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            }
+            return null;
+        }
+    }
 }
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2007 Sergiy Dubovik, Alexey Efimov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.spellChecker;
+
+import org.intellij.spellChecker.util.BoundedCache;
+import org.intellij.spellChecker.util.LatencyHistogram;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Statistics of spell checker manager: latencies of checks, suggestions, completion variants and dictionary loads,
+ * hit rates of caches and checking speed.
+ * <p/>
+ * Latencies of checks, suggestions and variants are recorded only while statistics are enabled, disabled
+ * statistics cost one volatile read per call. Statistics are enabled by system property
+ * {@link #STATISTICS_PROPERTY} or through JMX. Dictionary loads are rare and always recorded. Histograms are lock
+ * free, see {@link LatencyHistogram}.
+ *
+ * @author Alexey Efimov
+ */
+public final class SpellCheckerStatistics implements SpellCheckerStatisticsMBean {
+    /**
+     * System property to enable statistics on startup.
+     */
+    @NonNls
+    public static final String STATISTICS_PROPERTY = "spellchecker.statistics";
+    @NonNls
+    private static final String DOMAIN = "org.intellij.spellChecker";
+    private static final double NANOS_PER_SECOND = 1000000000.0;
+
+    private final BoundedCache<?, ?> verdicts;
+    private final BoundedCache<?, ?> suggestions;
+    private final LatencyHistogram checkLatency = new LatencyHistogram();
+    private final LatencyHistogram suggestionsLatency = new LatencyHistogram();
+    private final LatencyHistogram variantsLatency = new LatencyHistogram();
+    private final LatencyHistogram dictionaryLoadLatency = new LatencyHistogram();
+    private volatile boolean enabled = Boolean.getBoolean(STATISTICS_PROPERTY);
+
+    SpellCheckerStatistics(@NotNull BoundedCache<?, ?> verdicts, @NotNull BoundedCache<?, ?> suggestions) {
+        this.verdicts = verdicts;
+        this.suggestions = suggestions;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return Latencies of {@link SpellCheckerManager#hasProblem(CharSequence, int, int)}
+     */
+    @NotNull
+    public LatencyHistogram getCheckLatency() {
+        return checkLatency;
+    }
+
+    /**
+     * @return Latencies of {@link SpellCheckerManager#getSuggestions(String)}
+     */
+    @NotNull
+    public LatencyHistogram getSuggestionsLatency() {
+        return suggestionsLatency;
+    }
+
+    /**
+     * @return Latencies of {@link SpellCheckerManager#getVariants(String)}
+     */
+    @NotNull
+    public LatencyHistogram getVariantsLatency() {
+        return variantsLatency;
+    }
+
+    /**
+     * @return Latencies of dictionary loads
+     */
+    @NotNull
+    public LatencyHistogram getDictionaryLoadLatency() {
+        return dictionaryLoadLatency;
+    }
+
+    public long getCheckedWords() {
+        return checkLatency.getCount();
+    }
+
+    /**
+     * Checking speed: count of checked words per second spent in checks, summed over all threads. This is not a
+     * rate of words over wall time, idle time between checks is not counted.
+     *
+     * @return Words per second of checking
+     */
+    public double getWordsPerCheckingSecond() {
+        long nanos = checkLatency.getTotalNanos();
+        return nanos > 0 ? checkLatency.getCount() * NANOS_PER_SECOND / nanos : 0.0;
+    }
+
+    public double getVerdictCacheHitRate() {
+        return verdicts.getHitRate();
+    }
+
+    public long getVerdictCacheEvictions() {
+        return verdicts.getEvictionCount();
+    }
+
+    public double getSuggestionsCacheHitRate() {
+        return suggestions.getHitRate();
+    }
+
+    public long getSuggestionsCacheEvictions() {
+        return suggestions.getEvictionCount();
+    }
+
+    public void reset() {
+        checkLatency.reset();
+        suggestionsLatency.reset();
+        variantsLatency.reset();
+        dictionaryLoadLatency.reset();
+    }
+
+    /**
+     * Register statistics and histograms in MBean server, beans registered before by other instance are replaced.
+     *
+     * @param server MBean server
+     * @throws JMException if beans could not be registered
+     */
+    void register(@NotNull MBeanServer server) throws JMException {
+        register(server, this, "type=Statistics");
+        register(server, checkLatency, "type=Latency,name=hasProblem");
+        register(server, suggestionsLatency, "type=Latency,name=getSuggestions");
+        register(server, variantsLatency, "type=Latency,name=getVariants");
+        register(server, dictionaryLoadLatency, "type=Latency,name=addDictionary");
+    }
+
+    private static void register(@NotNull MBeanServer server, @NotNull Object bean, @NonNls @NotNull String properties)
+            throws JMException {
+        ObjectName name = new ObjectName(DOMAIN + ':' + properties);
+        if (server.isRegistered(name)) {
+            server.unregisterMBean(name);
+        }
+        server.registerMBean(bean, name);
+    }
+
+    public String toString() {
+        return "hasProblem: " + checkLatency + ", " + Math.round(getWordsPerCheckingSecond()) + " words/s of checking\n" +
+                "getSuggestions: " + suggestionsLatency + "\n" +
+                "getVariants: " + variantsLatency + "\n" +
+                "addDictionary: " + dictionaryLoadLatency + "\n" +
+                "verdicts: " + verdicts + "\n" +
+                "suggestions: " + suggestions;
+    }
+}
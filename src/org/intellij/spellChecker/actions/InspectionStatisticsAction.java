@@ -0,0 +1,121 @@
+/*
+ * Copyright 2007 Sergiy Dubovik, Alexey Efimov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.spellChecker.actions;
+
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.DataKeys;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.text.StringUtil;
+import org.intellij.spellChecker.SpellCheckerManager;
+import org.intellij.spellChecker.SpellCheckerStatistics;
+import org.intellij.spellChecker.inspections.InspectionStatistics;
+import org.intellij.spellChecker.util.SpellCheckerBundle;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Report of time, words and problems of spelling inspections, in total and for slowest files. Statistics are
+ * enabled by this action if they are disabled.
+ *
+ * @author Alexey Efimov
+ */
+public final class InspectionStatisticsAction extends AnAction {
+    private static final int SLOWEST_FILES = 20;
+    private static final int CLOSE = 0;
+    private static final int RESET = 1;
+    private static final int DISABLE = 2;
+    private static final double NANOS_PER_MILLI = 1000000.0;
+    private static final double NANOS_PER_MICRO = 1000.0;
+
+    public void actionPerformed(AnActionEvent e) {
+        Project project = e.getData(DataKeys.PROJECT);
+        SpellCheckerStatistics statistics = SpellCheckerManager.getInstance().getStatistics();
+        String title = SpellCheckerBundle.message("inspection.statistics");
+        if (!statistics.isEnabled()) {
+            if (Messages.showYesNoDialog(project, SpellCheckerBundle.message("inspection.statistics.are.disabled"), title,
+                    Messages.getQuestionIcon()) == 0) {
+                statistics.setEnabled(true);
+            }
+            return;
+        }
+        String[] options = {
+                SpellCheckerBundle.message("inspection.statistics.close"),
+                SpellCheckerBundle.message("inspection.statistics.reset"),
+                SpellCheckerBundle.message("inspection.statistics.disable")
+        };
+        int option = Messages.showDialog(project, report(statistics), title, options, CLOSE, Messages.getInformationIcon());
+        if (option == RESET || option == DISABLE) {
+            InspectionStatistics.getInstance().reset();
+            statistics.reset();
+            statistics.setEnabled(option == RESET);
+        }
+    }
+
+    @NotNull
+    private static String report(@NotNull SpellCheckerStatistics statistics) {
+        InspectionStatistics inspections = InspectionStatistics.getInstance();
+        StringBuilder html = new StringBuilder("<html>");
+        table(html, SpellCheckerBundle.message("inspection.statistics.inspections"), inspections.getInspections(), false);
+        table(html, SpellCheckerBundle.message("inspection.statistics.slowest.files", SLOWEST_FILES),
+                inspections.getSlowestFiles(SLOWEST_FILES), true);
+        html.append("<p>").append(SpellCheckerBundle.message("inspection.statistics.engine",
+                Math.round(statistics.getWordsPerCheckingSecond()), Math.round(statistics.getVerdictCacheHitRate() * 100)));
+        html.append("</html>");
+        return html.toString();
+    }
+
+    private static void table(@NotNull StringBuilder html, @NotNull String caption,
+                              @NotNull List<InspectionStatistics.Entry> entries, boolean files) {
+        html.append("<p><b>").append(caption).append("</b></p><table><tr>");
+        cell(html, "th", SpellCheckerBundle.message("inspection.statistics.inspection"));
+        if (files) {
+            cell(html, "th", SpellCheckerBundle.message("inspection.statistics.file"));
+        }
+        cell(html, "th", SpellCheckerBundle.message("inspection.statistics.calls"));
+        cell(html, "th", SpellCheckerBundle.message("inspection.statistics.time"));
+        cell(html, "th", SpellCheckerBundle.message("inspection.statistics.words"));
+        cell(html, "th", SpellCheckerBundle.message("inspection.statistics.problems"));
+        cell(html, "th", SpellCheckerBundle.message("inspection.statistics.time.per.word"));
+        html.append("</tr>");
+        for (InspectionStatistics.Entry entry : entries) {
+            html.append("<tr>");
+            cell(html, "td", entry.getInspection());
+            if (files) {
+                cell(html, "td", String.valueOf(entry.getPath()));
+            }
+            cell(html, "td", String.valueOf(entry.getCalls()));
+            cell(html, "td", format(entry.getNanos() / NANOS_PER_MILLI));
+            cell(html, "td", String.valueOf(entry.getWords()));
+            cell(html, "td", String.valueOf(entry.getProblems()));
+            cell(html, "td", entry.getWords() > 0 ? format(entry.getNanos() / NANOS_PER_MICRO / entry.getWords()) : "");
+            html.append("</tr>");
+        }
+        html.append("</table>");
+    }
+
+    private static void cell(@NotNull StringBuilder html, @NonNls @NotNull String tag, @NotNull String text) {
+        html.append('<').append(tag).append('>').append(StringUtil.escapeXml(text)).append("</").append(tag).append('>');
+    }
+
+    @NotNull
+    private static String format(double value) {
+        return String.valueOf(Math.round(value * 10) / 10.0);
+    }
+}
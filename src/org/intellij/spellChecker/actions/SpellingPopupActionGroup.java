@@ -29,6 +29,7 @@ import com.intellij.openapi.project.Project;
 import com.intellij.psi.PsiFile;
 import com.intellij.util.IncorrectOperationException;
 import org.intellij.spellChecker.inspections.SpellCheckerQuickFix;
+import org.intellij.spellChecker.inspections.SuggestionsQuickFix;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -74,7 +75,7 @@ public final class SpellingPopupActionGroup extends ActionGroup {
             children.put(Anchor.FIRST, first);
             ArrayList<AnAction> last = new ArrayList<AnAction>();
             children.put(Anchor.LAST, last);
-            extractActions(quickFixes, children);
+            extractActions(project, quickFixes, children);
             if (first.size() > 0 && last.size() > 0) {
                 first.add(new Separator());
             }
@@ -86,7 +87,7 @@ public final class SpellingPopupActionGroup extends ActionGroup {
         return AnAction.EMPTY_ARRAY;
     }
 
-    private static void extractActions(List<HighlightInfo.IntentionActionDescriptor> descriptors, Map<Anchor, List<AnAction>> actions) {
+    private static void extractActions(Project project, List<HighlightInfo.IntentionActionDescriptor> descriptors, Map<Anchor, List<AnAction>> actions) {
         for (HighlightInfo.IntentionActionDescriptor actionDescriptor : descriptors) {
             IntentionAction action = actionDescriptor.getAction();
             if (action instanceof QuickFixWrapper) {
@@ -95,10 +96,17 @@ public final class SpellingPopupActionGroup extends ActionGroup {
                 if (localQuickFix instanceof SpellCheckerQuickFix) {
                     SpellCheckerQuickFix spellCheckerQuickFix = (SpellCheckerQuickFix) localQuickFix;
                     Anchor anchor = spellCheckerQuickFix.getPopupActionAnchor();
-                    SpellCheckerIntentionAction popupAction = new SpellCheckerIntentionAction(action);
                     List<AnAction> list = actions.get(anchor);
                     if (list != null) {
-                        list.add(popupAction);
+                        if (spellCheckerQuickFix instanceof SuggestionsQuickFix) {
+                            // Suggestions are computed when popup is opened
+                            SuggestionsQuickFix suggestionsQuickFix = (SuggestionsQuickFix) spellCheckerQuickFix;
+                            for (String suggestion : suggestionsQuickFix.getSuggestions()) {
+                                list.add(new SuggestionAction(project, suggestionsQuickFix, suggestion));
+                            }
+                        } else {
+                            list.add(new SpellCheckerIntentionAction(action));
+                        }
                     }
                 }
             }
@@ -144,4 +152,21 @@ public final class SpellingPopupActionGroup extends ActionGroup {
             }
         }
     }
+
+    private static class SuggestionAction extends AnAction {
+        private final Project project;
+        private final SuggestionsQuickFix fix;
+        private final String suggestion;
+
+        public SuggestionAction(Project project, SuggestionsQuickFix fix, String suggestion) {
+            super(fix.getName(suggestion));
+            this.project = project;
+            this.fix = fix;
+            this.suggestion = suggestion;
+        }
+
+        public void actionPerformed(AnActionEvent e) {
+            fix.applySuggestionInCommand(project, suggestion);
+        }
+    }
 }
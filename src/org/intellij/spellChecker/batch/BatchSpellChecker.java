@@ -0,0 +1,285 @@
+/*
+ * Copyright 2007 Sergiy Dubovik, Alexey Efimov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.spellChecker.batch;
+
+import org.intellij.spellChecker.engine.ChunkedTextChecker;
+import org.intellij.spellChecker.engine.CompiledDictionary;
+import org.intellij.spellChecker.engine.LoadingProgress;
+import org.intellij.spellChecker.engine.SpellChecker;
+import org.intellij.spellChecker.engine.SpellCheckerFactory;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Command line spell checker of source trees, checks comments and literals of Java, XML and properties files
+ * and whole text of plain text files without IDEA:
+ * <pre>
+ * java -cp spellchecker.jar:jazzy-core.jar org.intellij.spellChecker.batch.BatchSpellChecker \
+ *     -dictionary english.0 us-ascii en -compiled german.dic -words words.txt -report report.xml src
+ * </pre>
+ * Options are:
+ * <ul>
+ * <li><code>-dictionary &lt;word list&gt; &lt;encoding&gt; &lt;locale&gt;</code> word list to load</li>
+ * <li><code>-compiled &lt;file&gt;</code> dictionary compiled by {@link org.intellij.spellChecker.engine.DictionaryCompiler}</li>
+ * <li><code>-words &lt;file&gt;</code> user dictionary, one word per line in UTF-8</li>
+ * <li><code>-encoding &lt;charset&gt;</code> encoding of Java and XML files, UTF-8 by default, properties files
+ * are always read in ISO-8859-1</li>
+ * <li><code>-threads &lt;count&gt;</code> count of checking threads, count of processors by default</li>
+ * <li><code>-report &lt;file&gt;</code> XML report, see {@link XmlReportWriter}, standard output by default</li>
+ * <li><code>-large &lt;megabytes&gt;</code> size of text files checked by {@link ChunkedTextChecker}, 16 by default</li>
+ * </ul>
+ * Files are checked in parallel on fixed thread pool. Directory tree is walked lazily and only a window of files
+ * is checked at once, so memory does not depend on size of tree, and reports are written in order of walk, so
+ * report of the same tree is always the same. Large text files are not read to heap, they are mapped and checked
+ * in chunks by all threads, misspellings are written to report as they are found. Exit code is 0 if no misspellings are found, 1 if there are
+ * misspellings or unreadable files, and 2 on wrong arguments.
+ *
+ * @author Alexey Efimov
+ */
+public final class BatchSpellChecker {
+    // Files checked or waiting for check per thread
+    private static final int WINDOW_PER_THREAD = 16;
+    @NonNls
+    private static final String PROPERTIES_CHARSET = "ISO-8859-1";
+    @NonNls
+    private static final String WORDS_CHARSET = "UTF-8";
+    private static final int MEGABYTE = 1024 * 1024;
+
+    private final SpellChecker checker;
+    private final ExecutorService executor;
+    private final Charset charset;
+    private final int window;
+    private final long largeSize;
+    private final ChunkedTextChecker chunkedChecker;
+    private final Queue<Future<FileReport>> pending = new LinkedList<Future<FileReport>>();
+    private final XmlReportWriter report;
+
+    private BatchSpellChecker(@NotNull SpellChecker checker, @NotNull Charset charset, int threads, long largeSize,
+                              @NotNull XmlReportWriter report) {
+        this.checker = checker;
+        this.charset = charset;
+        this.report = report;
+        this.largeSize = largeSize;
+        this.window = threads * WINDOW_PER_THREAD;
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.chunkedChecker = new ChunkedTextChecker(checker, executor, ChunkedTextChecker.DEFAULT_CHUNK_SIZE,
+                threads * 2);
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<Callable<Object>> loads = new ArrayList<Callable<Object>>();
+        List<File> wordFiles = new ArrayList<File>();
+        List<String> roots = new ArrayList<String>();
+        Charset charset = Charset.forName("UTF-8");
+        int threads = Runtime.getRuntime().availableProcessors();
+        long largeSize = 16L * MEGABYTE;
+        File reportFile = null;
+        final SpellChecker checker = SpellCheckerFactory.create();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if ("-dictionary".equals(arg) && i + 3 < args.length) {
+                    final File file = new File(args[++i]);
+                    final String encoding = args[++i];
+                    final Locale locale = parseLocale(args[++i]);
+                    loads.add(new Callable<Object>() {
+                        public Object call() throws IOException {
+                            InputStream is = new FileInputStream(file);
+                            try {
+                                checker.addDictionary(is, encoding, locale, file.length(), LoadingProgress.NONE);
+                            } finally {
+                                is.close();
+                            }
+                            return null;
+                        }
+                    });
+                } else if ("-compiled".equals(arg) && i + 1 < args.length) {
+                    final File file = new File(args[++i]);
+                    loads.add(new Callable<Object>() {
+                        public Object call() throws IOException {
+                            checker.addDictionary(CompiledDictionary.map(file));
+                            return null;
+                        }
+                    });
+                } else if ("-words".equals(arg) && i + 1 < args.length) {
+                    wordFiles.add(new File(args[++i]));
+                } else if ("-encoding".equals(arg) && i + 1 < args.length) {
+                    charset = Charset.forName(args[++i]);
+                } else if ("-threads".equals(arg) && i + 1 < args.length) {
+                    threads = Math.max(1, Integer.parseInt(args[++i]));
+                } else if ("-report".equals(arg) && i + 1 < args.length) {
+                    reportFile = new File(args[++i]);
+                } else if ("-large".equals(arg) && i + 1 < args.length) {
+                    largeSize = Math.max(1, Long.parseLong(args[++i])) * MEGABYTE;
+                } else if (arg.startsWith("-")) {
+                    throw new IllegalArgumentException("Unknown option " + arg);
+                } else {
+                    roots.add(arg);
+                }
+            }
+            if (loads.isEmpty() || roots.isEmpty()) {
+                throw new IllegalArgumentException("No dictionaries or source roots");
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: BatchSpellChecker [-dictionary <word list> <encoding> <locale>]... "
+                    + "[-compiled <file>]... [-words <file>]... [-encoding <charset>] [-threads <count>] "
+                    + "[-report <file>] [-large <megabytes>] <source root>...");
+            System.exit(2);
+        }
+
+        long start = System.currentTimeMillis();
+        OutputStream os = reportFile != null ? new FileOutputStream(reportFile) : System.out;
+        XmlReportWriter report = new XmlReportWriter(new BufferedWriter(new OutputStreamWriter(os, "UTF-8")));
+        BatchSpellChecker batch = new BatchSpellChecker(checker, charset, threads, largeSize, report);
+        try {
+            batch.load(loads, wordFiles);
+            for (String root : roots) {
+                batch.walk(new File(root), root);
+            }
+            batch.finish();
+        } finally {
+            batch.executor.shutdownNow();
+        }
+        report.close(System.currentTimeMillis() - start);
+        System.err.println(report.getFileCount() + " files, " + report.getWordCount() + " words, "
+                + report.getMisspellingCount() + " misspellings, " + report.getErrorCount() + " errors in "
+                + (System.currentTimeMillis() - start) + " ms");
+        System.exit(report.getMisspellingCount() > 0 || report.getErrorCount() > 0 ? 1 : 0);
+    }
+
+    /**
+     * Load dictionaries in parallel and user dictionary words.
+     */
+    private void load(@NotNull List<Callable<Object>> loads, @NotNull List<File> wordFiles)
+            throws IOException, InterruptedException {
+        List<Future<Object>> futures = executor.invokeAll(loads);
+        for (Future<Object> future : futures) {
+            get(future);
+        }
+        List<String> words = new ArrayList<String>();
+        for (File file : wordFiles) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), WORDS_CHARSET));
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    if (line.length() > 0) {
+                        words.add(line.toLowerCase());
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        }
+        checker.addAllToDictionary(words);
+    }
+
+    /**
+     * Walk tree in order of names, hidden directories are skipped.
+     */
+    private void walk(@NotNull File file, @NotNull String path) throws IOException, InterruptedException {
+        if (file.isDirectory()) {
+            String[] names = file.list();
+            if (names != null) {
+                Arrays.sort(names);
+                for (String name : names) {
+                    File child = new File(file, name);
+                    if (!name.startsWith(".") || !child.isDirectory()) {
+                        walk(child, path + '/' + name);
+                    }
+                }
+            }
+        } else {
+            SourceLexer lexer = Lexers.forFile(file.getName());
+            if (lexer != null) {
+                Charset fileCharset = lexer instanceof PropertiesLexer ? Charset.forName(PROPERTIES_CHARSET) : charset;
+                if (lexer instanceof TextLexer && file.length() >= largeSize && ChunkedTextChecker.isSupported(fileCharset)) {
+                    checkLarge(file, path, fileCharset);
+                    return;
+                }
+                if (pending.size() >= window) {
+                    report.write(get(pending.remove()));
+                }
+                pending.add(executor.submit(new FileCheck(file, path, fileCharset, lexer, checker)));
+            }
+        }
+    }
+
+    /**
+     * Check large text file in walking thread, chunks are checked by pool. Files checked before are written first
+     * to keep order of report.
+     */
+    private void checkLarge(@NotNull File file, @NotNull final String path, @NotNull Charset fileCharset)
+            throws IOException, InterruptedException {
+        finish();
+        final IOException[] writeError = new IOException[1];
+        long words;
+        try {
+            words = chunkedChecker.check(file, fileCharset, new ChunkedTextChecker.MisspellingHandler() {
+                public void misspelling(@NotNull String word, long offset, long line, long column) {
+                    if (writeError[0] == null) {
+                        try {
+                            report.misspelling(path, word, offset, line, column);
+                        } catch (IOException e) {
+                            writeError[0] = e;
+                        }
+                    }
+                }
+            });
+        } catch (IOException e) {
+            report.error(path, String.valueOf(e.getMessage()));
+            return;
+        }
+        if (writeError[0] != null) {
+            throw writeError[0];
+        }
+        report.endFile(words);
+    }
+
+    private void finish() throws IOException, InterruptedException {
+        while (!pending.isEmpty()) {
+            report.write(get(pending.remove()));
+        }
+    }
+
+    private static <T> T get(@NotNull Future<T> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    @NotNull
+    private static Locale parseLocale(@NonNls @NotNull String value) {
+        String[] parts = value.split("_", 3);
+        return new Locale(parts[0], parts.length > 1 ? parts[1] : "", parts.length > 2 ? parts[2] : "");
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2007 Sergiy Dubovik, Alexey Efimov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.spellChecker.batch;
+
+import org.intellij.spellChecker.engine.SpellChecker;
+import org.intellij.spellChecker.util.Strings;
+import org.intellij.spellChecker.util.WordSplitter;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.util.concurrent.Callable;
+
+/**
+ * Spell check of one source file. Ranges found by lexer are split to words by {@link WordSplitter} and words
+ * are checked as by <code>AbstractSpellCheckerVisitor</code>: mixed case words are skipped, other words are
+ * misspelled if they are neither ignored nor correct.
+ *
+ * @author Alexey Efimov
+ */
+final class FileCheck implements Callable<FileReport> {
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private final File file;
+    private final String path;
+    private final Charset charset;
+    private final SourceLexer lexer;
+    private final SpellChecker checker;
+
+    /**
+     * @param file    File
+     * @param path    Path of file in report
+     * @param charset Charset of file
+     * @param lexer   Lexer of file
+     * @param checker Spell checker, shared by all checks
+     */
+    FileCheck(@NotNull File file, @NotNull String path, @NotNull Charset charset, @NotNull SourceLexer lexer,
+              @NotNull SpellChecker checker) {
+        this.file = file;
+        this.path = path;
+        this.charset = charset;
+        this.lexer = lexer;
+        this.checker = checker;
+    }
+
+    public FileReport call() {
+        final FileReport report = new FileReport(path);
+        CharSequence text;
+        try {
+            text = read();
+        } catch (IOException e) {
+            report.setError(String.valueOf(e.getMessage()));
+            return report;
+        }
+        final LineCounter lines = new LineCounter();
+        final WordSplitter.WordProcessor words = new WordSplitter.WordProcessor() {
+            public void processWord(@NotNull CharSequence text, int start, int end) {
+                report.incrementWordCount();
+                if (!Strings.isMixedCase(text, start, end) &&
+                        !checker.isIgnored(text, start, end) && !checker.isCorrect(text, start, end)) {
+                    lines.advance(text, start);
+                    report.addMisspelling(new FileReport.Misspelling(text.subSequence(start, end).toString(),
+                            start, lines.line, start - lines.lineStart + 1));
+                }
+            }
+        };
+        lexer.tokenize(text, new SourceLexer.RangeProcessor() {
+            public void processRange(@NotNull CharSequence text, int start, int end) {
+                WordSplitter.split(text, start, end, words);
+            }
+        });
+        return report;
+    }
+
+    @NotNull
+    private CharSequence read() throws IOException {
+        Reader reader = new InputStreamReader(new FileInputStream(file), charset);
+        try {
+            // Most files are smaller in chars than in bytes
+            StringBuilder text = new StringBuilder((int) Math.min(file.length(), Integer.MAX_VALUE));
+            char[] buffer = new char[BUFFER_SIZE];
+            int read;
+            while ((read = reader.read(buffer)) >= 0) {
+                text.append(buffer, 0, read);
+            }
+            return text;
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Counter of lines up to offset, offsets of misspellings only grow so text is scanned once.
+     */
+    private static final class LineCounter {
+        private int offset;
+        private int line = 1;
+        private int lineStart;
+
+        private void advance(@NotNull CharSequence text, int target) {
+            for (; offset < target; offset++) {
+                char c = text.charAt(offset);
+                if (c == '\n' || (c == '\r' && (offset + 1 >= text.length() || text.charAt(offset + 1) != '\n'))) {
+                    line++;
+                    lineStart = offset + 1;
+                }
+            }
+        }
+    }
+}
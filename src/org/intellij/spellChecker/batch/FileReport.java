@@ -0,0 +1,110 @@
+/*
+ * Copyright 2007 Sergiy Dubovik, Alexey Efimov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.spellChecker.batch;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Misspellings found in one file.
+ *
+ * @author Alexey Efimov
+ */
+final class FileReport {
+    private final String path;
+    private final List<Misspelling> misspellings = new ArrayList<Misspelling>();
+    private int wordCount;
+    private String error;
+
+    FileReport(@NotNull String path) {
+        this.path = path;
+    }
+
+    @NotNull
+    public String getPath() {
+        return path;
+    }
+
+    @NotNull
+    public List<Misspelling> getMisspellings() {
+        return Collections.unmodifiableList(misspellings);
+    }
+
+    void addMisspelling(@NotNull Misspelling misspelling) {
+        misspellings.add(misspelling);
+    }
+
+    /**
+     * @return Count of checked words
+     */
+    public int getWordCount() {
+        return wordCount;
+    }
+
+    void incrementWordCount() {
+        wordCount++;
+    }
+
+    /**
+     * @return Message of error if file could not be read
+     */
+    @Nullable
+    public String getError() {
+        return error;
+    }
+
+    void setError(@NotNull String error) {
+        this.error = error;
+    }
+
+    /**
+     * Misspelled word with its position, offset is in chars of decoded file text, line and column start from 1.
+     */
+    static final class Misspelling {
+        private final String word;
+        private final int offset;
+        private final int line;
+        private final int column;
+
+        Misspelling(@NotNull String word, int offset, int line, int column) {
+            this.word = word;
+            this.offset = offset;
+            this.line = line;
+            this.column = column;
+        }
+
+        @NotNull
+        public String getWord() {
+            return word;
+        }
+
+        public int getOffset() {
+            return offset;
+        }
+
+        public int getLine() {
+            return line;
+        }
+
+        public int getColumn() {
+            return column;
+        }
+    }
+}
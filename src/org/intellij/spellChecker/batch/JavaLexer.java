@@ -0,0 +1,74 @@
+/*
+ * Copyright 2007 Sergiy Dubovik, Alexey Efimov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.spellChecker.batch;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Lexer of Java sources. Reports comments, including delimiters as in <code>PsiComment</code>, and string
+ * literals, including quotes as in <code>PsiLiteralExpression</code>. Character literals are skipped, so quotes
+ * in them don't start strings.
+ *
+ * @author Alexey Efimov
+ */
+final class JavaLexer implements SourceLexer {
+    public void tokenize(@NotNull CharSequence text, @NotNull RangeProcessor processor) {
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            char next = i + 1 < length ? text.charAt(i + 1) : 0;
+            if (c == '/' && next == '/') {
+                int end = Lexers.lineEnd(text, i + 2);
+                processor.processRange(text, i, end);
+                i = end;
+            } else if (c == '/' && next == '*') {
+                int end = Lexers.indexOf(text, "*/", i + 2);
+                end = end < 0 ? length : end + 2;
+                processor.processRange(text, i, end);
+                i = end;
+            } else if (c == '"') {
+                int end = quotedEnd(text, i, '"');
+                processor.processRange(text, i, end);
+                i = end;
+            } else if (c == '\'') {
+                i = quotedEnd(text, i, '\'');
+            } else {
+                i++;
+            }
+        }
+    }
+
+    /**
+     * @return Offset after closing quote, or line end for unterminated literal
+     */
+    private static int quotedEnd(@NotNull CharSequence text, int start, char quote) {
+        int length = text.length();
+        int i = start + 1;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (c == quote) {
+                return i + 1;
+            } else if (c == '\n' || c == '\r') {
+                return i;
+            } else if (c == '\\' && i + 1 < length) {
+                i++;
+            }
+            i++;
+        }
+        return length;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2007 Sergiy Dubovik, Alexey Efimov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.spellChecker.batch;
+
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Lexers by file extension and text scanning helpers shared by lexers.
+ *
+ * @author Alexey Efimov
+ */
+public final class Lexers {
+    private static final Map<String, SourceLexer> LEXERS = new HashMap<String, SourceLexer>();
+
+    static {
+        LEXERS.put("java", new JavaLexer());
+        LEXERS.put("xml", new XmlLexer());
+        LEXERS.put("properties", new PropertiesLexer());
+        LEXERS.put("txt", new TextLexer());
+    }
+
+    private Lexers() {
+    }
+
+    /**
+     * @param fileName Name of file
+     * @return Lexer for file extension, or <code>null</code> if file is not checked
+     */
+    @Nullable
+    public static SourceLexer forFile(@NonNls @NotNull String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot >= 0 ? LEXERS.get(fileName.substring(dot + 1).toLowerCase()) : null;
+    }
+
+    static int lineEnd(@NotNull CharSequence text, int offset) {
+        int length = text.length();
+        while (offset < length && text.charAt(offset) != '\n' && text.charAt(offset) != '\r') {
+            offset++;
+        }
+        return offset;
+    }
+
+    static int indexOf(@NotNull CharSequence text, @NonNls @NotNull String pattern, int offset) {
+        int last = text.length() - pattern.length();
+        for (int i = offset; i <= last; i++) {
+            if (startsWith(text, pattern, i)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static boolean startsWith(@NotNull CharSequence text, @NonNls @NotNull String prefix, int offset) {
+        if (offset + prefix.length() > text.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (text.charAt(offset + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2007 Sergiy Dubovik, Alexey Efimov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.spellChecker.batch;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Lexer of properties files. Reports comment lines and property values with their continuation lines, keys are
+ * split from values by the rules of {@link java.util.Properties#load(java.io.InputStream)}.
+ *
+ * @author Alexey Efimov
+ */
+final class PropertiesLexer implements SourceLexer {
+    public void tokenize(@NotNull CharSequence text, @NotNull RangeProcessor processor) {
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            i = skipBlanks(text, i);
+            if (i >= length) {
+                break;
+            }
+            char c = text.charAt(i);
+            if (c == '\n' || c == '\r') {
+                i++;
+            } else if (c == '#' || c == '!') {
+                int end = Lexers.lineEnd(text, i);
+                processor.processRange(text, i, end);
+                i = end;
+            } else {
+                i = property(text, i, processor);
+            }
+        }
+    }
+
+    /**
+     * Report value of property.
+     *
+     * @return Offset after value
+     */
+    private static int property(@NotNull CharSequence text, int offset, @NotNull RangeProcessor processor) {
+        int length = text.length();
+        // Key ends at unescaped separator or blank
+        while (offset < length) {
+            char c = text.charAt(offset);
+            if (c == '\\') {
+                offset = isLineEnd(text, offset + 1) ? skipBlanks(text, skipLineEnd(text, offset + 1)) : offset + 2;
+            } else if (c == '=' || c == ':' || c == ' ' || c == '\t' || c == '\f' || c == '\n' || c == '\r') {
+                break;
+            } else {
+                offset++;
+            }
+        }
+        offset = skipBlanks(text, offset);
+        if (offset < length && (text.charAt(offset) == '=' || text.charAt(offset) == ':')) {
+            offset = skipBlanks(text, offset + 1);
+        }
+        int start = offset;
+        // Value ends at line end which is not escaped by backslash
+        while (offset < length && !isLineEnd(text, offset)) {
+            if (text.charAt(offset) == '\\' && offset + 1 < length) {
+                offset = isLineEnd(text, offset + 1) ? skipLineEnd(text, offset + 1) : offset + 2;
+            } else {
+                offset++;
+            }
+        }
+        offset = Math.min(offset, length);
+        if (offset > start) {
+            processor.processRange(text, start, offset);
+        }
+        return offset;
+    }
+
+    private static boolean isLineEnd(@NotNull CharSequence text, int offset) {
+        return offset < text.length() && (text.charAt(offset) == '\n' || text.charAt(offset) == '\r');
+    }
+
+    private static int skipLineEnd(@NotNull CharSequence text, int offset) {
+        if (text.charAt(offset) == '\r' && offset + 1 < text.length() && text.charAt(offset + 1) == '\n') {
+            return offset + 2;
+        }
+        return offset + 1;
+    }
+
+    private static int skipBlanks(@NotNull CharSequence text, int offset) {
+        int length = text.length();
+        while (offset < length && (text.charAt(offset) == ' ' || text.charAt(offset) == '\t' || text.charAt(offset) == '\f')) {
+            offset++;
+        }
+        return offset;
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2007 Sergiy Dubovik, Alexey Efimov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.spellChecker.batch;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Lightweight lexer which finds spell checked ranges of source file without building PSI. Ranges are the same
+ * elements which inspections check, with the same text, so words and offsets are the same as in IDEA.
+ *
+ * @author Alexey Efimov
+ */
+public interface SourceLexer {
+    /**
+     * Consumer of spell checked ranges.
+     */
+    interface RangeProcessor {
+        /**
+         * Process range, ranges are reported in order of offsets.
+         *
+         * @param text  Text
+         * @param start Start offset of range
+         * @param end   End offset of range
+         */
+        void processRange(@NotNull CharSequence text, int start, int end);
+    }
+
+    /**
+     * Find spell checked ranges.
+     *
+     * @param text      Text of source file
+     * @param processor Consumer of ranges
+     */
+    void tokenize(@NotNull CharSequence text, @NotNull RangeProcessor processor);
+}
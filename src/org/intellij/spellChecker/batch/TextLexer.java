@@ -0,0 +1,29 @@
+/*
+ * Copyright 2007 Sergiy Dubovik, Alexey Efimov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.spellChecker.batch;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Lexer of plain text files, whole text is checked.
+ *
+ * @author Alexey Efimov
+ */
+final class TextLexer implements SourceLexer {
+    public void tokenize(@NotNull CharSequence text, @NotNull RangeProcessor processor) {
+        processor.processRange(text, 0, text.length());
+    }
+}
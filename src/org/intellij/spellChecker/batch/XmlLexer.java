@@ -0,0 +1,126 @@
+/*
+ * Copyright 2007 Sergiy Dubovik, Alexey Efimov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.spellChecker.batch;
+
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Lexer of XML files. Reports text between tags, content of CDATA sections, attribute values including quotes
+ * as in <code>XmlAttributeValue</code>, and comments including delimiters as in <code>XmlComment</code>.
+ * Processing instructions and declarations are skipped.
+ *
+ * @author Alexey Efimov
+ */
+final class XmlLexer implements SourceLexer {
+    @NonNls
+    private static final String COMMENT_START = "<!--";
+    @NonNls
+    private static final String COMMENT_END = "-->";
+    @NonNls
+    private static final String CDATA_START = "<![CDATA[";
+    @NonNls
+    private static final String CDATA_END = "]]>";
+    @NonNls
+    private static final String INSTRUCTION_START = "<?";
+    @NonNls
+    private static final String INSTRUCTION_END = "?>";
+    @NonNls
+    private static final String DECLARATION_START = "<!";
+
+    public void tokenize(@NotNull CharSequence text, @NotNull RangeProcessor processor) {
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            if (text.charAt(i) != '<') {
+                int end = i;
+                while (end < length && text.charAt(end) != '<') {
+                    end++;
+                }
+                processor.processRange(text, i, end);
+                i = end;
+            } else if (Lexers.startsWith(text, COMMENT_START, i)) {
+                int end = skipTo(text, COMMENT_END, i + COMMENT_START.length());
+                processor.processRange(text, i, end);
+                i = end;
+            } else if (Lexers.startsWith(text, CDATA_START, i)) {
+                int start = i + CDATA_START.length();
+                int end = Lexers.indexOf(text, CDATA_END, start);
+                processor.processRange(text, start, end < 0 ? length : end);
+                i = end < 0 ? length : end + CDATA_END.length();
+            } else if (Lexers.startsWith(text, INSTRUCTION_START, i)) {
+                i = skipTo(text, INSTRUCTION_END, i + INSTRUCTION_START.length());
+            } else if (Lexers.startsWith(text, DECLARATION_START, i)) {
+                i = skipDeclaration(text, i + DECLARATION_START.length());
+            } else {
+                i = tag(text, i + 1, processor);
+            }
+        }
+    }
+
+    /**
+     * @return Offset after end marker, or text length if there is no end
+     */
+    private static int skipTo(@NotNull CharSequence text, @NotNull String end, int offset) {
+        int index = Lexers.indexOf(text, end, offset);
+        return index < 0 ? text.length() : index + end.length();
+    }
+
+    /**
+     * Skip declaration, with internal subset of DOCTYPE in brackets.
+     */
+    private static int skipDeclaration(@NotNull CharSequence text, int offset) {
+        int length = text.length();
+        int depth = 0;
+        while (offset < length) {
+            char c = text.charAt(offset++);
+            if (c == '[') {
+                depth++;
+            } else if (c == ']') {
+                depth--;
+            } else if (c == '>' && depth <= 0) {
+                break;
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * Report attribute values of tag.
+     *
+     * @return Offset after tag
+     */
+    private static int tag(@NotNull CharSequence text, int offset, @NotNull RangeProcessor processor) {
+        int length = text.length();
+        while (offset < length) {
+            char c = text.charAt(offset);
+            if (c == '>') {
+                return offset + 1;
+            } else if (c == '"' || c == '\'') {
+                int end = offset + 1;
+                while (end < length && text.charAt(end) != c) {
+                    end++;
+                }
+                end = Math.min(end + 1, length);
+                processor.processRange(text, offset, end);
+                offset = end;
+            } else {
+                offset++;
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2007 Sergiy Dubovik, Alexey Efimov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.spellChecker.batch;
+
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Streaming writer of XML report. Files are written as they are checked, misspellings of large files are written
+ * as they are found. Only files with misspellings or errors are written, and totals are written at the end:
+ * <pre>
+ * &lt;spellcheck&gt;
+ *   &lt;file path="src/Foo.java"&gt;
+ *     &lt;misspelling word="teh" offset="1234" line="42" column="17"/&gt;
+ *   &lt;/file&gt;
+ *   &lt;file path="src/Bar.xml" error="..."/&gt;
+ *   &lt;summary files="2" words="1000" misspellings="1" errors="1" time="12"/&gt;
+ * &lt;/spellcheck&gt;
+ * </pre>
+ * Offsets are in chars of decoded file text, as in IDEA editor.
+ *
+ * @author Alexey Efimov
+ */
+final class XmlReportWriter {
+    private final Writer writer;
+    private int fileCount;
+    private long wordCount;
+    private long misspellingCount;
+    private int errorCount;
+    private boolean inFile;
+
+    XmlReportWriter(@NotNull Writer writer) throws IOException {
+        this.writer = writer;
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<spellcheck>\n");
+    }
+
+    public void write(@NotNull FileReport report) throws IOException {
+        if (report.getError() != null) {
+            error(report.getPath(), report.getError());
+        } else {
+            for (FileReport.Misspelling misspelling : report.getMisspellings()) {
+                misspelling(report.getPath(), misspelling.getWord(), misspelling.getOffset(), misspelling.getLine(),
+                        misspelling.getColumn());
+            }
+            endFile(report.getWordCount());
+        }
+    }
+
+    /**
+     * Write misspelling of current file, file element is started by first misspelling.
+     *
+     * @param path   Path of file
+     * @param word   Misspelled word
+     * @param offset Offset of word in chars
+     * @param line   Line of word
+     * @param column Column of word
+     * @throws IOException if report could not be written
+     */
+    public void misspelling(@NotNull String path, @NotNull String word, long offset, long line, long column)
+            throws IOException {
+        if (!inFile) {
+            writer.write("  <file");
+            attribute("path", path);
+            writer.write(">\n");
+            inFile = true;
+        }
+        misspellingCount++;
+        writer.write("    <misspelling");
+        attribute("word", word);
+        attribute("offset", String.valueOf(offset));
+        attribute("line", String.valueOf(line));
+        attribute("column", String.valueOf(column));
+        writer.write("/>\n");
+    }
+
+    /**
+     * End current file.
+     *
+     * @param words Count of checked words in file
+     * @throws IOException if report could not be written
+     */
+    public void endFile(long words) throws IOException {
+        if (inFile) {
+            writer.write("  </file>\n");
+            inFile = false;
+        }
+        fileCount++;
+        wordCount += words;
+    }
+
+    /**
+     * Write file which could not be checked.
+     *
+     * @param path  Path of file
+     * @param error Message of error
+     * @throws IOException if report could not be written
+     */
+    public void error(@NotNull String path, @NotNull String error) throws IOException {
+        if (inFile) {
+            writer.write("  </file>\n");
+            inFile = false;
+        }
+        fileCount++;
+        errorCount++;
+        writer.write("  <file");
+        attribute("path", path);
+        attribute("error", error);
+        writer.write("/>\n");
+    }
+
+    /**
+     * Write totals and close report.
+     *
+     * @param time Time of check in milliseconds
+     * @throws IOException if report could not be written
+     */
+    public void close(long time) throws IOException {
+        writer.write("  <summary");
+        attribute("files", String.valueOf(fileCount));
+        attribute("words", String.valueOf(wordCount));
+        attribute("misspellings", String.valueOf(misspellingCount));
+        attribute("errors", String.valueOf(errorCount));
+        attribute("time", String.valueOf(time));
+        writer.write("/>\n</spellcheck>\n");
+        writer.close();
+    }
+
+    public int getFileCount() {
+        return fileCount;
+    }
+
+    public long getWordCount() {
+        return wordCount;
+    }
+
+    public long getMisspellingCount() {
+        return misspellingCount;
+    }
+
+    public int getErrorCount() {
+        return errorCount;
+    }
+
+    private void attribute(@NonNls @NotNull String name, @NotNull String value) throws IOException {
+        writer.write(' ');
+        writer.write(name);
+        writer.write("=\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&':
+                    writer.write("&amp;");
+                    break;
+                case '<':
+                    writer.write("&lt;");
+                    break;
+                case '>':
+                    writer.write("&gt;");
+                    break;
+                case '"':
+                    writer.write("&quot;");
+                    break;
+                default:
+                    if (c < ' ') {
+                        writer.write("&#" + (int) c + ';');
+                    } else {
+                        writer.write(c);
+                    }
+            }
+        }
+        writer.write('"');
+    }
+}
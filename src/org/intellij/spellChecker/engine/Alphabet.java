@@ -0,0 +1,151 @@
+/*
+ * Copyright 2007 Sergiy Dubovik, Alexey Efimov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.spellChecker.engine;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+
+/**
+ * Immutable set of characters used by dictionary words.
+ * <p/>
+ * Characters are kept in sorted array, Latin-1 characters are also kept in bit mask, so checks of Latin words
+ * take one bit test per character. Checks never allocate objects.
+ *
+ * @author Alexey Efimov
+ */
+final class Alphabet {
+    private static final int LATIN_LIMIT = 256;
+    static final Alphabet EMPTY = new Alphabet(new char[0]);
+
+    private final char[] chars;
+    private final long[] latin = new long[LATIN_LIMIT / 64];
+
+    private Alphabet(@NotNull char[] sorted) {
+        this.chars = sorted;
+        for (char c : sorted) {
+            if (c < LATIN_LIMIT) {
+                latin[c >> 6] |= 1L << c;
+            }
+        }
+    }
+
+    /**
+     * @param sorted Sorted characters without duplicates
+     * @return Alphabet
+     */
+    @NotNull
+    public static Alphabet of(@NotNull char[] sorted) {
+        return sorted.length > 0 ? new Alphabet(sorted.clone()) : EMPTY;
+    }
+
+    @NotNull
+    public static Alphabet of(@NotNull CharSequence word) {
+        return EMPTY.with(word);
+    }
+
+    @NotNull
+    public static Alphabet of(@NotNull Collection<String> words) {
+        Alphabet alphabet = EMPTY;
+        for (String word : words) {
+            alphabet = alphabet.with(word);
+        }
+        return alphabet;
+    }
+
+    public int size() {
+        return chars.length;
+    }
+
+    public boolean contains(char c) {
+        if (c < LATIN_LIMIT) {
+            return (latin[c >> 6] & (1L << c)) != 0;
+        }
+        return binarySearch(chars, c) >= 0;
+    }
+
+    public boolean containsAll(@NotNull CharSequence text) {
+        return containsAll(text, 0, text.length());
+    }
+
+    public boolean containsAll(@NotNull CharSequence text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!contains(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Return alphabet extended by characters of word.
+     *
+     * @param word Word
+     * @return This alphabet if it already contains all characters of word, otherwise new alphabet
+     */
+    @NotNull
+    public Alphabet with(@NotNull CharSequence word) {
+        if (containsAll(word)) {
+            return this;
+        }
+        char[] buffer = new char[chars.length + word.length()];
+        System.arraycopy(chars, 0, buffer, 0, chars.length);
+        int size = chars.length;
+        for (int i = 0; i < word.length(); i++) {
+            int index = binarySearch(buffer, 0, size, word.charAt(i));
+            if (index < 0) {
+                int insert = -(index + 1);
+                System.arraycopy(buffer, insert, buffer, insert + 1, size - insert);
+                buffer[insert] = word.charAt(i);
+                size++;
+            }
+        }
+        char[] sorted = new char[size];
+        System.arraycopy(buffer, 0, sorted, 0, size);
+        return new Alphabet(sorted);
+    }
+
+    @NotNull
+    public Alphabet union(@NotNull Alphabet alphabet) {
+        return with(new String(alphabet.chars));
+    }
+
+    @NotNull
+    public char[] toCharArray() {
+        return chars.clone();
+    }
+
+    private static int binarySearch(char[] chars, char c) {
+        return binarySearch(chars, 0, chars.length, c);
+    }
+
+    private static int binarySearch(char[] chars, int from, int to, char c) {
+        int low = from;
+        int high = to - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            char value = chars[middle];
+            if (value < c) {
+                low = middle + 1;
+            } else if (value > c) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+}
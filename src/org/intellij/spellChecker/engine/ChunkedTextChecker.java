@@ -0,0 +1,305 @@
+/*
+ * Copyright 2007 Sergiy Dubovik, Alexey Efimov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.spellChecker.engine;
+
+import org.intellij.spellChecker.util.Strings;
+import org.intellij.spellChecker.util.WordSplitter;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Checker of very large plain text files.
+ * <p/>
+ * File is mapped to memory and split into chunks after whitespace bytes, chunks are decoded, split to words by
+ * {@link WordSplitter} and checked in parallel. Words never span whitespace, so words are the same as for whole
+ * text. Results are passed back in order of chunks with absolute offsets, lines and columns. Only a window of
+ * chunks is decoded at once, so heap does not depend on size of file.
+ * <p/>
+ * Chunks are split at bytes of ASCII whitespace, so charset must encode ASCII whitespace as single bytes which
+ * never appear inside of other characters, as UTF-8, ISO-8859-1 and other ASCII compatible charsets do.
+ *
+ * @author Alexey Efimov
+ */
+public final class ChunkedTextChecker {
+    public static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+    private static final int SEGMENT_SIZE = 64 * 1024 * 1024;
+    private static final byte[] ASCII_WHITESPACE = {' ', '\t', '\r', '\n'};
+
+    private final SpellChecker checker;
+    private final ExecutorService executor;
+    private final int chunkSize;
+    private final int window;
+
+    /**
+     * Handler of misspelled words, called by thread which checks file.
+     */
+    public interface MisspellingHandler {
+        /**
+         * @param word   Misspelled word
+         * @param offset Offset of word in chars of decoded text
+         * @param line   Line of word, starting from 1
+         * @param column Column of word in chars, starting from 1
+         */
+        void misspelling(@NotNull String word, long offset, long line, long column);
+    }
+
+    /**
+     * @param checker   Spell checker
+     * @param executor  Executor of chunk checks, must not be busy with the thread calling {@link #check}
+     * @param chunkSize Bytes per chunk, chunks are longer by the rest of last word
+     * @param window    Maximal count of chunks checked or waiting for check at once
+     */
+    public ChunkedTextChecker(@NotNull SpellChecker checker, @NotNull ExecutorService executor, int chunkSize, int window) {
+        if (chunkSize <= 0 || chunkSize > SEGMENT_SIZE / 2 || window <= 0) {
+            throw new IllegalArgumentException("Wrong chunk size " + chunkSize + " or window " + window);
+        }
+        this.checker = checker;
+        this.executor = executor;
+        this.chunkSize = chunkSize;
+        this.window = window;
+    }
+
+    /**
+     * @param charset Charset
+     * @return <code>true</code> if text in charset can be split at whitespace bytes
+     */
+    public static boolean isSupported(@NotNull Charset charset) {
+        if (!charset.canEncode()) {
+            return false;
+        }
+        return charset.encode(" \t\r\n").equals(ByteBuffer.wrap(ASCII_WHITESPACE));
+    }
+
+    /**
+     * Check all words of file, mixed case words are skipped as by inspections.
+     *
+     * @param file    File
+     * @param charset Charset of file, see {@link #isSupported(Charset)}
+     * @param handler Handler of misspelled words, called in order of offsets
+     * @return Count of checked words
+     * @throws IOException          if file could not be read
+     * @throws InterruptedException if thread is interrupted while waiting for chunk
+     */
+    public long check(@NotNull File file, @NotNull Charset charset, @NotNull MisspellingHandler handler)
+            throws IOException, InterruptedException {
+        if (!isSupported(charset)) {
+            throw new IllegalArgumentException("Charset " + charset + " is not ASCII compatible");
+        }
+        Queue<Future<Chunk>> pending = new LinkedList<Future<Chunk>>();
+        Position position = new Position();
+        FileInputStream is = new FileInputStream(file);
+        try {
+            FileChannel channel = is.getChannel();
+            long size = channel.size();
+            long offset = 0;
+            long segmentStart = 0;
+            MappedByteBuffer segment = null;
+            try {
+                while (offset < size) {
+                    long segmentEnd = segmentStart + (segment != null ? segment.capacity() : 0);
+                    if (segment == null || (offset + 2L * chunkSize > segmentEnd && segmentEnd < size)) {
+                        // Next chunk and its last word may not fit in segment
+                        segmentStart = offset;
+                        segment = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(SEGMENT_SIZE, size - offset));
+                    }
+                    int from = (int) (offset - segmentStart);
+                    int to = boundary(segment, from + chunkSize);
+                    ByteBuffer bytes = segment.duplicate();
+                    bytes.limit(to);
+                    bytes.position(from);
+                    if (pending.size() >= window) {
+                        position.report(get(pending.remove()), handler);
+                    }
+                    pending.add(executor.submit(new ChunkCheck(bytes.slice(), charset, checker)));
+                    offset = segmentStart + to;
+                }
+                while (!pending.isEmpty()) {
+                    position.report(get(pending.remove()), handler);
+                }
+            } finally {
+                for (Future<Chunk> future : pending) {
+                    future.cancel(true);
+                }
+            }
+        } finally {
+            is.close();
+        }
+        return position.wordCount;
+    }
+
+    /**
+     * Find end of chunk right after whitespace at or after given offset. If there is no whitespace in next chunk
+     * size bytes, chunk is cut before byte which starts character.
+     */
+    private int boundary(@NotNull ByteBuffer segment, int offset) {
+        int limit = segment.limit();
+        if (offset >= limit) {
+            return limit;
+        }
+        int max = Math.min(limit, offset + chunkSize);
+        for (int i = offset; i < max; i++) {
+            byte b = segment.get(i);
+            // Never after '\r', so line break "\r\n" is not split
+            if (b == ' ' || b == '\t' || b == '\n') {
+                return i + 1;
+            }
+        }
+        if (max == limit) {
+            return limit;
+        }
+        int end = max;
+        while (end > offset && (segment.get(end) & 0xC0) == 0x80) {
+            // UTF-8 continuation byte
+            end--;
+        }
+        return end;
+    }
+
+    private static <T> T get(@NotNull Future<T> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            IOException exception = new IOException("Chunk check failed");
+            exception.initCause(cause);
+            throw exception;
+        }
+    }
+
+    /**
+     * Position of chunk in text, advanced as chunks are reported.
+     */
+    private static final class Position {
+        private long offset;
+        private long line = 1;
+        private long lineStart;
+        private long wordCount;
+
+        private void report(@NotNull Chunk chunk, @NotNull MisspellingHandler handler) {
+            for (Misspelling misspelling : chunk.misspellings) {
+                long wordOffset = offset + misspelling.offset;
+                long wordLineStart = misspelling.lineStart >= 0 ? offset + misspelling.lineStart : lineStart;
+                handler.misspelling(misspelling.word, wordOffset, line + misspelling.lineIndex, wordOffset - wordLineStart + 1);
+            }
+            if (chunk.lastLineStart >= 0) {
+                lineStart = offset + chunk.lastLineStart;
+            }
+            line += chunk.lineBreaks;
+            offset += chunk.length;
+            wordCount += chunk.wordCount;
+        }
+    }
+
+    /**
+     * Decoding and check of one chunk.
+     */
+    private static final class ChunkCheck implements Callable<Chunk> {
+        private final ByteBuffer bytes;
+        private final Charset charset;
+        private final SpellChecker checker;
+
+        private ChunkCheck(@NotNull ByteBuffer bytes, @NotNull Charset charset, @NotNull SpellChecker checker) {
+            this.bytes = bytes;
+            this.charset = charset;
+            this.checker = checker;
+        }
+
+        public Chunk call() throws IOException {
+            CharBuffer text = charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                    .decode(bytes);
+            Chunk chunk = new Chunk(text.length(), checker);
+            WordSplitter.split(text, chunk);
+            chunk.advance(text, text.length());
+            return chunk;
+        }
+    }
+
+    /**
+     * Result of chunk check, offsets are relative to chunk. Lines are counted as words are found, so chunk text
+     * is scanned once.
+     */
+    private static final class Chunk implements WordSplitter.WordProcessor {
+        private final int length;
+        private final SpellChecker checker;
+        private final List<Misspelling> misspellings = new ArrayList<Misspelling>();
+        private int wordCount;
+        private int lineBreaks;
+        private int lastLineStart = -1;
+        private int scanned;
+
+        private Chunk(int length, @NotNull SpellChecker checker) {
+            this.length = length;
+            this.checker = checker;
+        }
+
+        public void processWord(@NotNull CharSequence text, int start, int end) {
+            advance(text, start);
+            wordCount++;
+            if (!Strings.isMixedCase(text, start, end) &&
+                    !checker.isIgnored(text, start, end) && !checker.isCorrect(text, start, end)) {
+                misspellings.add(new Misspelling(text.subSequence(start, end).toString(), start, lineBreaks, lastLineStart));
+            }
+        }
+
+        private void advance(@NotNull CharSequence text, int offset) {
+            for (; scanned < offset; scanned++) {
+                char c = text.charAt(scanned);
+                if (c == '\n' || (c == '\r' && (scanned + 1 >= text.length() || text.charAt(scanned + 1) != '\n'))) {
+                    lineBreaks++;
+                    lastLineStart = scanned + 1;
+                }
+            }
+        }
+    }
+
+    private static final class Misspelling {
+        private final String word;
+        private final int offset;
+        private final int lineIndex;
+        private final int lineStart;
+
+        private Misspelling(@NotNull String word, int offset, int lineIndex, int lineStart) {
+            this.word = word;
+            this.offset = offset;
+            this.lineIndex = lineIndex;
+            this.lineStart = lineStart;
+        }
+    }
+}
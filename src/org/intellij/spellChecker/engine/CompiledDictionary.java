@@ -0,0 +1,261 @@
+/*
+ * Copyright 2007 Sergiy Dubovik, Alexey Efimov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.spellChecker.engine;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Locale;
+
+/**
+ * Dictionary compiled to word automata, either built in memory or mapped from binary file.
+ * <p/>
+ * Binary file layout, all values are big endian and every section starts at 4 bytes boundary:
+ * <pre>
+ * int    MAGIC
+ * int    VERSION
+ * long   checksum of source word list, see {@link #getSourceChecksum()}
+ * string locale language, country and variant
+ * int    word count
+ * int    max word length
+ * string alphabet, sorted characters of all words
+ * store  words
+ * store  phonetic codes, entries are code + {@link #CODE_SEPARATOR} + word
+ * store  lower cased words for completion variants
+ * </pre>
+ * where <code>string</code> is int length, chars and padding, and <code>store</code> is int root, int size,
+ * int arc count and arcs of {@link DawgWordStore}. Mapped dictionary is not copied to heap, loading takes
+ * constant time and pages are shared by all processes mapping the same file.
+ *
+ * @author Alexey Efimov
+ */
+public final class CompiledDictionary {
+    static final int MAGIC = 0x53504443;
+    static final int VERSION = 3;
+    static final char CODE_SEPARATOR = '\u0000';
+
+    private final Locale locale;
+    private final long sourceChecksum;
+    private final int wordCount;
+    private final int maxWordLength;
+    private final char[] alphabet;
+    private final DawgWordStore words;
+    private final DawgWordStore codes;
+    private final DawgWordStore variants;
+
+    CompiledDictionary(@NotNull Locale locale, long sourceChecksum, int maxWordLength, @NotNull char[] alphabet,
+                       @NotNull DawgWordStore words, @NotNull DawgWordStore codes, @NotNull DawgWordStore variants) {
+        this.locale = locale;
+        this.sourceChecksum = sourceChecksum;
+        this.wordCount = words.size();
+        this.maxWordLength = maxWordLength;
+        this.alphabet = alphabet;
+        this.words = words;
+        this.codes = codes;
+        this.variants = variants;
+    }
+
+    @NotNull
+    public Locale getLocale() {
+        return locale;
+    }
+
+    /**
+     * @return Checksum of word list bytes, charset and locale dictionary is compiled from, or 0 if dictionary is
+     *         not compiled from stream
+     * @see DictionaryCompiler#sourceChecksum(long, java.nio.charset.Charset, Locale)
+     */
+    public long getSourceChecksum() {
+        return sourceChecksum;
+    }
+
+    public int getWordCount() {
+        return wordCount;
+    }
+
+    public int getMaxWordLength() {
+        return maxWordLength;
+    }
+
+    /**
+     * @return Sorted characters of all dictionary words
+     */
+    @NotNull
+    public char[] getAlphabet() {
+        return alphabet.clone();
+    }
+
+    @NotNull
+    DawgWordStore getWords() {
+        return words;
+    }
+
+    @NotNull
+    DawgWordStore getCodes() {
+        return codes;
+    }
+
+    @NotNull
+    DawgWordStore getVariants() {
+        return variants;
+    }
+
+    /**
+     * Map compiled dictionary file to memory.
+     *
+     * @param file Binary dictionary file created by {@link DictionaryCompiler}
+     * @return Mapped dictionary
+     * @throws IOException if file could not be mapped or has wrong format
+     */
+    @NotNull
+    public static CompiledDictionary map(@NotNull File file) throws IOException {
+        FileInputStream is = new FileInputStream(file);
+        try {
+            FileChannel channel = is.getChannel();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return read(buffer);
+        } finally {
+            is.close();
+        }
+    }
+
+    /**
+     * Read source checksum from header of compiled dictionary file, file is read by stream and not mapped.
+     *
+     * @param file Binary dictionary file created by {@link DictionaryCompiler}
+     * @return Checksum of source word list, see {@link #getSourceChecksum()}
+     * @throws IOException if file could not be read or has wrong format
+     */
+    public static long readSourceChecksum(@NotNull File file) throws IOException {
+        DataInputStream is = new DataInputStream(new FileInputStream(file));
+        try {
+            checkHeader(is.readInt(), is.readInt());
+            return is.readLong();
+        } catch (EOFException e) {
+            IOException exception = new IOException("Broken compiled dictionary");
+            exception.initCause(e);
+            throw exception;
+        } finally {
+            is.close();
+        }
+    }
+
+    private static void checkHeader(int magic, int version) throws IOException {
+        if (magic != MAGIC) {
+            throw new IOException("Not a compiled dictionary");
+        }
+        if (version != VERSION) {
+            throw new IOException("Unsupported compiled dictionary version: " + version);
+        }
+    }
+
+    @NotNull
+    static CompiledDictionary read(@NotNull ByteBuffer buffer) throws IOException {
+        try {
+            checkHeader(buffer.getInt(), buffer.getInt());
+            long sourceChecksum = buffer.getLong();
+            Locale locale = new Locale(readString(buffer), readString(buffer), readString(buffer));
+            buffer.getInt();
+            int maxWordLength = buffer.getInt();
+            char[] alphabet = readString(buffer).toCharArray();
+            DawgWordStore words = readStore(buffer);
+            DawgWordStore codes = readStore(buffer);
+            DawgWordStore variants = readStore(buffer);
+            return new CompiledDictionary(locale, sourceChecksum, maxWordLength, alphabet, words, codes, variants);
+        } catch (RuntimeException e) {
+            // Buffer underflow or illegal position on truncated file
+            IOException exception = new IOException("Broken compiled dictionary");
+            exception.initCause(e);
+            throw exception;
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        char[] chars = new char[length];
+        buffer.asCharBuffer().get(chars);
+        buffer.position(buffer.position() + align(length * 2));
+        return new String(chars);
+    }
+
+    private static DawgWordStore readStore(ByteBuffer buffer) {
+        int root = buffer.getInt();
+        int size = buffer.getInt();
+        int arcCount = buffer.getInt();
+        int length = arcCount * 2;
+        IntBuffer arcs = buffer.slice().asIntBuffer();
+        arcs.limit(length);
+        buffer.position(buffer.position() + length * 4);
+        return new DawgWordStore(arcs.slice(), root, size);
+    }
+
+    /**
+     * Write dictionary in binary format.
+     *
+     * @param file Target file
+     * @throws IOException if file could not be written
+     */
+    public void write(@NotNull File file) throws IOException {
+        DataOutputStream os = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 64 * 1024));
+        try {
+            write(os);
+        } finally {
+            os.close();
+        }
+    }
+
+    void write(@NotNull DataOutputStream os) throws IOException {
+        os.writeInt(MAGIC);
+        os.writeInt(VERSION);
+        os.writeLong(sourceChecksum);
+        writeString(os, locale.getLanguage());
+        writeString(os, locale.getCountry());
+        writeString(os, locale.getVariant());
+        os.writeInt(wordCount);
+        os.writeInt(maxWordLength);
+        writeString(os, new String(alphabet));
+        writeStore(os, words);
+        writeStore(os, codes);
+        writeStore(os, variants);
+    }
+
+    private static void writeString(DataOutputStream os, String value) throws IOException {
+        os.writeInt(value.length());
+        os.writeChars(value);
+        for (int i = value.length() * 2; i < align(value.length() * 2); i++) {
+            os.writeByte(0);
+        }
+    }
+
+    private static void writeStore(DataOutputStream os, DawgWordStore store) throws IOException {
+        os.writeInt(store.getRoot());
+        os.writeInt(store.size());
+        os.writeInt(store.getArcCount());
+        IntBuffer arcs = store.getArcs();
+        arcs.rewind();
+        while (arcs.hasRemaining()) {
+            os.writeInt(arcs.get());
+        }
+    }
+
+    private static int align(int length) {
+        return (length + 3) & ~3;
+    }
+}
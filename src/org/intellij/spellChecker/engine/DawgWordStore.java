@@ -0,0 +1,354 @@
+/*
+ * Copyright 2007 Sergiy Dubovik, Alexey Efimov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.spellChecker.engine;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.IntBuffer;
+import java.util.*;
+
+/**
+ * Immutable word store based on minimized acyclic automaton (DAWG).
+ * <p/>
+ * Common prefixes and suffixes of words are shared, so store takes a fraction of heap used by separate
+ * {@link String} objects. Automaton is kept in flat arc table, two ints per arc:
+ * <ul>
+ * <li>label in low 16 bits, {@link #FINAL} flag if word ends at arc target and {@link #LAST} flag for last arc
+ * of state;</li>
+ * <li>index of first arc of target state or <code>-1</code> if target state has no arcs.</li>
+ * </ul>
+ * Arcs of state are sorted by label, so words are enumerated in {@link String#compareTo(String)} order.
+ *
+ * @author Alexey Efimov
+ */
+final class DawgWordStore {
+    private static final int LABEL_MASK = 0xFFFF;
+    static final int FINAL = 1 << 16;
+    static final int LAST = 1 << 17;
+    private static final int NO_ARCS = -1;
+
+    private final IntBuffer arcs;
+    private final int root;
+    private final int size;
+
+    DawgWordStore(@NotNull IntBuffer arcs, int root, int size) {
+        this.arcs = arcs;
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Build store from words.
+     *
+     * @param words Words, they will be sorted and deduplicated
+     * @return Word store
+     */
+    @NotNull
+    public static DawgWordStore build(@NotNull Collection<String> words) {
+        String[] sorted = words.toArray(new String[words.size()]);
+        Arrays.sort(sorted);
+        Builder builder = new Builder();
+        for (String word : sorted) {
+            builder.add(word);
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return Count of words in store
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return Count of arcs in automaton
+     */
+    public int getArcCount() {
+        return arcs.limit() / 2;
+    }
+
+    @NotNull
+    IntBuffer getArcs() {
+        return arcs.duplicate();
+    }
+
+    int getRoot() {
+        return root;
+    }
+
+    public boolean contains(@NotNull CharSequence word) {
+        return contains(word, 0, word.length());
+    }
+
+    public boolean contains(@NotNull CharSequence text, int start, int end) {
+        return contains(text, start, end, false);
+    }
+
+    /**
+     * Check that store contains word from text range.
+     *
+     * @param text      Text
+     * @param start     Start offset of word
+     * @param end       End offset of word
+     * @param lowerCase Look up word lower cased by {@link Character#toLowerCase(char)}
+     * @return <code>true</code> if word is found
+     */
+    public boolean contains(@NotNull CharSequence text, int start, int end, boolean lowerCase) {
+        if (start >= end) {
+            return false;
+        }
+        int state = root;
+        int arc = NO_ARCS;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            arc = findArc(state, lowerCase ? Character.toLowerCase(c) : c);
+            if (arc == NO_ARCS) {
+                return false;
+            }
+            state = arcs.get(arc * 2 + 1);
+        }
+        return (arcs.get(arc * 2) & FINAL) != 0;
+    }
+
+    private int findArc(int state, char c) {
+        if (state != NO_ARCS) {
+            for (int arc = state; ; arc++) {
+                int header = arcs.get(arc * 2);
+                int label = header & LABEL_MASK;
+                if (label == c) {
+                    return arc;
+                }
+                if (label > c || (header & LAST) != 0) {
+                    break;
+                }
+            }
+        }
+        return NO_ARCS;
+    }
+
+    /**
+     * Append all words with given prefix, in sorted order.
+     *
+     * @param prefix Prefix
+     * @param buffer Buffer for words
+     */
+    public void appendWordsStartsWith(@NotNull CharSequence prefix, @NotNull Collection<String> buffer) {
+        appendWordsStartsWith(prefix, buffer, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Append words with given prefix, in sorted order. Time is proportional to length of prefix and appended words.
+     *
+     * @param prefix Prefix
+     * @param buffer Buffer for words
+     * @param limit  Maximum count of words to append
+     */
+    public void appendWordsStartsWith(@NotNull CharSequence prefix, @NotNull Collection<String> buffer, int limit) {
+        int state = root;
+        int arc = NO_ARCS;
+        for (int i = 0; i < prefix.length(); i++) {
+            arc = findArc(state, prefix.charAt(i));
+            if (arc == NO_ARCS) {
+                return;
+            }
+            state = arcs.get(arc * 2 + 1);
+        }
+        StringBuilder word = new StringBuilder(prefix);
+        int[] remaining = {limit};
+        if (arc != NO_ARCS && (arcs.get(arc * 2) & FINAL) != 0 && remaining[0] > 0) {
+            buffer.add(word.toString());
+            remaining[0]--;
+        }
+        appendAll(state, word, buffer, remaining);
+    }
+
+    private void appendAll(int state, StringBuilder word, Collection<String> buffer, int[] remaining) {
+        if (state == NO_ARCS) {
+            return;
+        }
+        for (int arc = state; remaining[0] > 0; arc++) {
+            int header = arcs.get(arc * 2);
+            word.append((char) (header & LABEL_MASK));
+            if ((header & FINAL) != 0) {
+                buffer.add(word.toString());
+                remaining[0]--;
+            }
+            appendAll(arcs.get(arc * 2 + 1), word, buffer, remaining);
+            word.setLength(word.length() - 1);
+            if ((header & LAST) != 0) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Incremental builder of minimal automaton from sorted words (Daciuk, Mihov, Watson, Watson).
+     */
+    static final class Builder {
+        private final Map<State, State> register = new HashMap<State, State>();
+        private final List<State> path = new ArrayList<State>();
+        private String previous = "";
+        private int size;
+
+        Builder() {
+            path.add(new State());
+        }
+
+        /**
+         * Add word, words must be added in sorted order.
+         *
+         * @param word Word
+         */
+        public void add(@NotNull String word) {
+            int compare = word.compareTo(previous);
+            if (compare < 0) {
+                throw new IllegalArgumentException("Words must be added in sorted order: " + word);
+            }
+            if (compare == 0 || word.length() == 0) {
+                return;
+            }
+            int common = 0;
+            int max = Math.min(word.length(), previous.length());
+            while (common < max && word.charAt(common) == previous.charAt(common)) {
+                common++;
+            }
+            replaceOrRegister(common);
+            State state = path.get(common);
+            for (int i = common; i < word.length(); i++) {
+                State child = new State();
+                state.add(word.charAt(i), child);
+                path.add(child);
+                state = child;
+            }
+            state.isFinal = true;
+            previous = word;
+            size++;
+        }
+
+        private void replaceOrRegister(int depth) {
+            for (int i = path.size() - 1; i > depth; i--) {
+                State child = path.remove(i);
+                State registered = register.get(child);
+                if (registered != null) {
+                    path.get(i - 1).replaceLastChild(registered);
+                } else {
+                    child.id = register.size();
+                    register.put(child, child);
+                }
+            }
+        }
+
+        @NotNull
+        public DawgWordStore build() {
+            replaceOrRegister(0);
+            State rootState = path.get(0);
+            int count = rootState.count;
+            for (State state : register.keySet()) {
+                count += state.count;
+            }
+            register.clear();
+            int[] arcs = new int[count * 2];
+            int[] position = new int[1];
+            int root = write(rootState, arcs, position);
+            return new DawgWordStore(IntBuffer.wrap(arcs), root, size);
+        }
+
+        private static int write(State state, int[] arcs, int[] position) {
+            if (state.count == 0) {
+                return NO_ARCS;
+            }
+            if (state.offset != NO_ARCS) {
+                return state.offset;
+            }
+            int[] targets = new int[state.count];
+            for (int i = 0; i < state.count; i++) {
+                targets[i] = write(state.targets[i], arcs, position);
+            }
+            int first = position[0];
+            for (int i = 0; i < state.count; i++) {
+                int header = state.labels[i];
+                if (state.targets[i].isFinal) {
+                    header |= FINAL;
+                }
+                if (i == state.count - 1) {
+                    header |= LAST;
+                }
+                arcs[(first + i) * 2] = header;
+                arcs[(first + i) * 2 + 1] = targets[i];
+            }
+            position[0] += state.count;
+            state.offset = first;
+            return first;
+        }
+    }
+
+    private static final class State {
+        private char[] labels = new char[1];
+        private State[] targets = new State[1];
+        private int count;
+        private boolean isFinal;
+        // Registration number, children of registered state are always registered
+        private int id = -1;
+        private int offset = NO_ARCS;
+
+        private void add(char label, State target) {
+            if (count == labels.length) {
+                char[] newLabels = new char[count * 2];
+                System.arraycopy(labels, 0, newLabels, 0, count);
+                labels = newLabels;
+                State[] newTargets = new State[count * 2];
+                System.arraycopy(targets, 0, newTargets, 0, count);
+                targets = newTargets;
+            }
+            labels[count] = label;
+            targets[count] = target;
+            count++;
+        }
+
+        private void replaceLastChild(State target) {
+            targets[count - 1] = target;
+        }
+
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof State)) {
+                return false;
+            }
+            State state = (State) o;
+            if (isFinal != state.isFinal || count != state.count) {
+                return false;
+            }
+            for (int i = 0; i < count; i++) {
+                if (labels[i] != state.labels[i] || targets[i] != state.targets[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        public int hashCode() {
+            int result = isFinal ? 1 : 0;
+            for (int i = 0; i < count; i++) {
+                result = (result ^ labels[i]) * 0x9E3779B1;
+                result = (result ^ targets[i].id) * 0x85EBCA6B;
+            }
+            return result ^ (result >>> 15);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2007 Sergiy Dubovik, Alexey Efimov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.spellChecker.engine;
+
+import com.swabunga.spell.engine.DoubleMeta;
+import com.swabunga.spell.engine.Transformator;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Compiler of word lists to {@link CompiledDictionary}.
+ * <p/>
+ * Used as offline tool to precompile bundled dictionaries, <code>dictionaries/build.xml</code> runs it after make:
+ * <pre>
+ * java -cp spellchecker.jar:jazzy-core.jar org.intellij.spellChecker.engine.DictionaryCompiler \
+ *     english.0 utf-8 en english.dic
+ * </pre>
+ *
+ * @author Alexey Efimov
+ */
+public final class DictionaryCompiler {
+    private DictionaryCompiler() {
+    }
+
+    /**
+     * Compile word list, one word per line, into in-memory dictionary. Words are read by {@link WordListReader},
+     * and phonetic codes, alphabet and source checksum are built in the same pass.
+     *
+     * @param is       Word list
+     * @param charset  Charset of word list
+     * @param length   Length of word list in bytes, or -1 if unknown
+     * @param locale   Locale of words
+     * @param progress Progress of reading
+     * @return Compiled dictionary
+     * @throws IOException if word list could not be read
+     * @throws java.util.concurrent.CancellationException
+     *                     if progress is canceled
+     */
+    @NotNull
+    public static CompiledDictionary compile(@NotNull InputStream is, @NotNull Charset charset, long length,
+                                             @NotNull Locale locale, @NotNull LoadingProgress progress) throws IOException {
+        Builder builder = new Builder();
+        WordListReader reader = new WordListReader(is, charset, length, progress);
+        reader.read(builder);
+        return builder.build(locale, sourceChecksum(reader.getChecksum(), charset, locale));
+    }
+
+    /**
+     * Checksum of word list source. High half is CRC32 of word list bytes, low half is CRC32 of charset and locale,
+     * so dictionary is compiled again when either the words or the way they are read is changed.
+     *
+     * @param bytesChecksum CRC32 of word list bytes
+     * @param charset       Charset of word list
+     * @param locale        Locale of words
+     * @return Checksum
+     */
+    static long sourceChecksum(long bytesChecksum, @NotNull Charset charset, @NotNull Locale locale) {
+        CRC32 checksum = new CRC32();
+        byte[] bytes = (charset.name() + '/' + locale).getBytes();
+        checksum.update(bytes, 0, bytes.length);
+        return bytesChecksum << 32 | checksum.getValue();
+    }
+
+    @NotNull
+    private static Locale parseLocale(@NonNls @NotNull String value) {
+        String[] parts = value.split("_", 3);
+        return new Locale(parts[0], parts.length > 1 ? parts[1] : "", parts.length > 2 ? parts[2] : "");
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 4) {
+            System.err.println("Usage: DictionaryCompiler <word list> <encoding> <locale> <output file>");
+            System.exit(1);
+        }
+        File input = new File(args[0]);
+        InputStream is = new FileInputStream(input);
+        CompiledDictionary dictionary;
+        try {
+            dictionary = compile(is, Charset.forName(args[1]), input.length(), parseLocale(args[2]), LoadingProgress.NONE);
+        } finally {
+            is.close();
+        }
+        File output = new File(args[3]);
+        dictionary.write(output);
+        System.out.println(output.getName() + ": " + dictionary.getWordCount() + " words, "
+                + dictionary.getAlphabet().length + " characters in alphabet, "
+                + dictionary.getWords().getArcCount() + " + " + dictionary.getCodes().getArcCount() + " + "
+                + dictionary.getVariants().getArcCount() + " arcs, "
+                + output.length() + " bytes");
+    }
+
+    /**
+     * Collects unique words with their phonetic codes, alphabet and maximal length as words are read.
+     */
+    private static final class Builder implements WordListReader.WordHandler {
+        private final Transformator transformator = new DoubleMeta();
+        private final Set<String> words = new HashSet<String>();
+        private final List<String> codes = new ArrayList<String>();
+        private final boolean[] chars = new boolean[Character.MAX_VALUE + 1];
+        private int maxWordLength;
+
+        public void word(@NotNull String word) {
+            if (words.add(word)) {
+                codes.add(transformator.transform(word) + CompiledDictionary.CODE_SEPARATOR + word);
+                maxWordLength = Math.max(maxWordLength, word.length());
+                for (int i = 0; i < word.length(); i++) {
+                    chars[word.charAt(i)] = true;
+                }
+            }
+        }
+
+        @NotNull
+        public CompiledDictionary build(@NotNull Locale locale, long sourceChecksum) {
+            StringBuilder alphabet = new StringBuilder();
+            for (int c = 0; c < chars.length; c++) {
+                if (chars[c]) {
+                    alphabet.append((char) c);
+                }
+            }
+            return new CompiledDictionary(locale, sourceChecksum, maxWordLength, alphabet.toString().toCharArray(),
+                    DawgWordStore.build(words), DawgWordStore.build(codes), Variants.buildStore(words, locale));
+        }
+    }
+}
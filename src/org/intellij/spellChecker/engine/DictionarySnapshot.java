@@ -0,0 +1,140 @@
+/*
+ * Copyright 2007 Sergiy Dubovik, Alexey Efimov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.spellChecker.engine;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.Charset;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.zip.CRC32;
+
+/**
+ * Snapshot of dictionary compiled from word list, kept as {@link CompiledDictionary} file.
+ * <p/>
+ * First load compiles word list and writes snapshot, later loads map snapshot without parsing of words. Snapshot
+ * is used only if it has format of current engine version and was compiled from the same word list bytes, charset
+ * and locale, otherwise it is compiled and written again. Checking word list costs one CRC32 pass over its bytes.
+ * Snapshot header is checked by stream before snapshot is mapped, so stale snapshot is never mapped and can be
+ * replaced, mapped file can't be deleted on Windows until its buffer is collected.
+ *
+ * @author Alexey Efimov
+ */
+public final class DictionarySnapshot {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private DictionarySnapshot() {
+    }
+
+    /**
+     * Load dictionary from snapshot, or compile word list and write snapshot if there is no valid one.
+     *
+     * @param wordList Word list, one word per line
+     * @param charset  Charset of word list
+     * @param locale   Locale of words
+     * @param snapshot Snapshot file
+     * @param progress Progress of compiling
+     * @return Dictionary mapped from snapshot, or in-memory dictionary if snapshot could not be written
+     * @throws IOException           if word list could not be read
+     * @throws CancellationException if progress is canceled
+     */
+    @NotNull
+    public static CompiledDictionary load(@NotNull URL wordList, @NotNull Charset charset, @NotNull Locale locale,
+                                          @NotNull File snapshot, @NotNull LoadingProgress progress) throws IOException {
+        if (snapshot.isFile()) {
+            try {
+                if (CompiledDictionary.readSourceChecksum(snapshot) == checksum(wordList, charset, locale, progress)) {
+                    return CompiledDictionary.map(snapshot);
+                }
+            } catch (IOException e) {
+                // Snapshot of other engine version or broken, compile it again
+            }
+        }
+        CompiledDictionary dictionary;
+        URLConnection connection = wordList.openConnection();
+        InputStream is = connection.getInputStream();
+        try {
+            dictionary = DictionaryCompiler.compile(is, charset, connection.getContentLength(), locale, progress);
+        } finally {
+            is.close();
+        }
+        if (write(dictionary, snapshot)) {
+            // Mapped pages replace words compiled into heap
+            return CompiledDictionary.map(snapshot);
+        }
+        return dictionary;
+    }
+
+    /**
+     * @param wordList Word list
+     * @param charset  Charset of word list
+     * @param locale   Locale of words
+     * @param progress Progress, checked for cancel
+     * @return Checksum same as {@link CompiledDictionary#getSourceChecksum()} of dictionary compiled from word list
+     * @throws IOException if word list could not be read
+     */
+    static long checksum(@NotNull URL wordList, @NotNull Charset charset, @NotNull Locale locale,
+                         @NotNull LoadingProgress progress) throws IOException {
+        CRC32 checksum = new CRC32();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        InputStream is = wordList.openStream();
+        try {
+            int read;
+            while ((read = is.read(buffer)) >= 0) {
+                if (progress.isCanceled()) {
+                    throw new CancellationException();
+                }
+                checksum.update(buffer, 0, read);
+            }
+        } finally {
+            is.close();
+        }
+        return DictionaryCompiler.sourceChecksum(checksum.getValue(), charset, locale);
+    }
+
+    /**
+     * Write snapshot through temporary file, so snapshot is never seen partially written.
+     *
+     * @param dictionary Dictionary
+     * @param snapshot   Snapshot file
+     * @return <code>true</code> if snapshot is written
+     */
+    private static boolean write(@NotNull CompiledDictionary dictionary, @NotNull File snapshot) {
+        File directory = snapshot.getAbsoluteFile().getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            return false;
+        }
+        File temp = null;
+        try {
+            temp = File.createTempFile(snapshot.getName(), null, directory);
+            dictionary.write(temp);
+            if ((!snapshot.exists() || snapshot.delete()) && temp.renameTo(snapshot)) {
+                return true;
+            }
+        } catch (IOException e) {
+            // Snapshot is only a cache, dictionary is compiled again on next load
+        }
+        if (temp != null) {
+            temp.delete();
+        }
+        return false;
+    }
+}
@@ -15,215 +15,350 @@
  */
 package org.intellij.spellChecker.engine;
 
+import com.swabunga.spell.engine.SpellDictionaryASpell;
 import com.swabunga.spell.engine.SpellDictionaryHashMap;
 import com.swabunga.spell.engine.Word;
+import org.intellij.spellChecker.util.FlightRecorderEvent;
 import org.jetbrains.annotations.NonNls;
 import org.jetbrains.annotations.NotNull;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.Reader;
+import java.io.*;
+import java.nio.charset.Charset;
 import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Jazzy implementation of Spell Checker.
+ * <p/>
+ * Checker is thread safe. Words are checked without locks against {@link SpellCheckerState} snapshot.
+ * Jazzy delegate is used for suggestions only, suggestions are searched concurrently under read lock,
+ * all changes of dictionaries, user and ignored words take write lock.
+ * <p/>
+ * Dictionary loads, slow suggestions and slow variants are reported as Flight Recorder events, see
+ * {@link FlightRecorderEvent}.
  *
  * @author Alexey Efimov
  */
 final class JazzySpellChecker implements SpellChecker {
+    private static final FlightRecorderEvent DICTIONARY_LOAD_EVENT = FlightRecorderEvent.define(
+            "org.intellij.spellChecker.DictionaryLoad", "Spelling Dictionary Load", "0 ms",
+            new String[]{"locale", "dictionary", "words"}, new Class<?>[]{String.class, String.class, int.class});
+    private static final FlightRecorderEvent SUGGESTIONS_EVENT = FlightRecorderEvent.define(
+            "org.intellij.spellChecker.Suggestions", "Spelling Suggestions", "5 ms",
+            new String[]{"word", "locale", "threshold", "candidates"},
+            new Class<?>[]{String.class, String.class, int.class, int.class});
+    private static final FlightRecorderEvent VARIANTS_EVENT = FlightRecorderEvent.define(
+            "org.intellij.spellChecker.Variants", "Spelling Variants", "5 ms",
+            new String[]{"prefix", "locale", "candidates"}, new Class<?>[]{String.class, String.class, int.class});
+
     private final SpellCheckerWrapper delegate = new SpellCheckerWrapper();
-    private final Map<SpellDictionaryImpl, Set<Character>> dictionaries = new HashMap<SpellDictionaryImpl, Set<Character>>();
-    private final Set<Character> allowed = new HashSet<Character>();
-    private SpellDictionaryImpl userDictionary;
+    private final ReadWriteLock delegateLock = new ReentrantReadWriteLock();
+    private volatile SpellCheckerState<SpellDictionaryImpl> state = SpellCheckerState.create();
 
     JazzySpellChecker() {
-        setUserDictionary();
+        delegate.setUserDictionary(createUserDictionary(Collections.<String>emptyList()));
     }
 
     public void addDictionary(@NotNull InputStream is, @NonNls String encoding, @NotNull Locale locale) throws IOException {
-        SpellDictionaryImpl spellDictionary = new SpellDictionaryImpl(new InputStreamReader(is, encoding), locale);
-        Set<Character> indexedChars = spellDictionary.getIndexedChars();
-        dictionaries.put(spellDictionary, indexedChars);
-        allowed.addAll(indexedChars);
-        delegate.addDictionary(spellDictionary);
+        addDictionary(is, encoding, locale, -1, LoadingProgress.NONE);
+    }
+
+    public void addDictionary(@NotNull InputStream is, @NonNls String encoding, @NotNull Locale locale,
+                              long length, @NotNull LoadingProgress progress) throws IOException {
+        FlightRecorderEvent.Event event = DICTIONARY_LOAD_EVENT.begin();
+        CompiledDictionary dictionary = DictionaryCompiler.compile(is, Charset.forName(encoding), length, locale, progress);
+        install(dictionary);
+        if (event != null && event.shouldCommit()) {
+            event.commit(locale.toString(), "word list " + encoding, dictionary.getWordCount());
+        }
+    }
+
+    public void addDictionary(@NotNull CompiledDictionary dictionary) {
+        FlightRecorderEvent.Event event = DICTIONARY_LOAD_EVENT.begin();
+        install(dictionary);
+        if (event != null && event.shouldCommit()) {
+            event.commit(dictionary.getLocale().toString(), "compiled " + Long.toHexString(dictionary.getSourceChecksum()),
+                    dictionary.getWordCount());
+        }
+    }
+
+    private void install(@NotNull CompiledDictionary dictionary) {
+        SpellDictionaryImpl spellDictionary;
+        try {
+            spellDictionary = new SpellDictionaryImpl(dictionary);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        delegateLock.writeLock().lock();
+        try {
+            state = state.withDictionary(spellDictionary);
+            delegate.addDictionary(spellDictionary);
+        } finally {
+            delegateLock.writeLock().unlock();
+        }
     }
 
     public void addToDictionary(@NotNull String word) {
-        delegate.addToDictionary(word);
-        indexWord(word);
+        delegateLock.writeLock().lock();
+        try {
+            delegate.addToDictionary(word);
+            state = state.withWord(word);
+        } finally {
+            delegateLock.writeLock().unlock();
+        }
+    }
+
+    public void addAllToDictionary(@NotNull Collection<String> words) {
+        delegateLock.writeLock().lock();
+        try {
+            for (String word : words) {
+                delegate.addToDictionary(word);
+            }
+            state = state.withAddedWords(words);
+        } finally {
+            delegateLock.writeLock().unlock();
+        }
     }
 
-    private void indexWord(CharSequence word) {
-        indexWord(word, allowed);
+    public void removeFromDictionary(@NotNull String word) {
+        removeAllFromDictionary(Collections.singleton(word));
     }
 
-    private static void indexWord(CharSequence word, Set<Character> index) {
-        for (int i = 0; i < word.length(); i++) {
-            index.add(word.charAt(i));
+    public void removeAllFromDictionary(@NotNull Collection<String> words) {
+        delegateLock.writeLock().lock();
+        try {
+            SpellCheckerState<SpellDictionaryImpl> removed = state.withoutWords(words);
+            if (removed != state) {
+                // Jazzy user dictionary can't remove words, it is rebuilt from remaining words
+                delegate.setUserDictionary(createUserDictionary(removed.getWords().getWords()));
+                state = removed;
+            }
+        } finally {
+            delegateLock.writeLock().unlock();
         }
     }
 
     public void ignoreAll(@NotNull String word) {
-        delegate.ignoreAll(word);
+        delegateLock.writeLock().lock();
+        try {
+            state.ignore(word);
+        } finally {
+            delegateLock.writeLock().unlock();
+        }
+    }
+
+    public void unignore(@NotNull String word) {
+        delegateLock.writeLock().lock();
+        try {
+            state.unignore(word);
+        } finally {
+            delegateLock.writeLock().unlock();
+        }
     }
 
     public boolean isIgnored(@NotNull String word) {
-        return !isEntireWordAllowed(word, allowed) || delegate.isIgnored(word);
+        return isIgnored(word, 0, word.length());
+    }
+
+    public boolean isIgnored(@NotNull CharSequence text, int start, int end) {
+        return state.isIgnored(text, start, end);
     }
 
     public boolean isCorrect(@NotNull String word) {
-        return !isEntireWordAllowed(word, allowed) || delegate.isCorrect(word);
+        return isCorrect(word, 0, word.length());
     }
 
-    private static boolean isEntireWordAllowed(CharSequence word, Set<Character> index) {
-        for (int i = 0; i < word.length(); i++) {
-            if (!index.contains(word.charAt(i))) {
-                return false;
+    public boolean isCorrect(@NotNull CharSequence text, int start, int end) {
+        // Jazzy delegate is not used here, it computes phonetic code for user dictionary look up
+        return state.isCorrect(text, start, end);
+    }
+
+    /**
+     * Return alphabets of dictionaries which contain all characters of word.
+     *
+     * @param word Word
+     * @return Alphabets, empty list if word is not from any dictionary
+     */
+    @NotNull
+    private List<Alphabet> findDictionaryAlphabets(@NotNull String word) {
+        List<SpellDictionaryImpl> dictionaries = state.getDictionaries();
+        List<Alphabet> alphabets = new ArrayList<Alphabet>(dictionaries.size());
+        for (int i = 0; i < dictionaries.size(); i++) {
+            Alphabet alphabet = dictionaries.get(i).getAlphabet();
+            if (alphabet.containsAll(word)) {
+                alphabets.add(alphabet);
             }
         }
-        return true;
+        return alphabets;
     }
 
-    private Set<Character> findDictionaryIndex(String word) {
-        Set<Character> commonIndex = null;
-        Set<Character> lastIndex = null;
-        Collection<Set<Character>> indexes = dictionaries.values();
-        for (Set<Character> index : indexes) {
-            if (isEntireWordAllowed(word, index)) {
-                if (lastIndex != null && commonIndex == null) {
-                    commonIndex = new HashSet<Character>(lastIndex.size() + index.size());
-                    commonIndex.addAll(lastIndex);
-                    lastIndex = commonIndex;
-                }
-                if (commonIndex != null) {
-                    commonIndex.addAll(index);
-                } else {
-                    lastIndex = index;
+    /**
+     * Return locales of dictionaries which contain all characters of word, for events only.
+     *
+     * @param word Word
+     * @return Comma separated locales
+     */
+    @NotNull
+    private String getLocales(@NotNull String word) {
+        StringBuilder locales = new StringBuilder();
+        for (SpellDictionaryImpl dictionary : state.getDictionaries()) {
+            if (dictionary.getAlphabet().containsAll(word)) {
+                if (locales.length() > 0) {
+                    locales.append(", ");
                 }
+                locales.append(dictionary.locale);
+            }
+        }
+        return locales.toString();
+    }
+
+    private static boolean isEntireWordAllowed(@NotNull String word, @NotNull List<Alphabet> alphabets) {
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            boolean allowed = false;
+            for (int j = 0; j < alphabets.size() && !allowed; j++) {
+                allowed = alphabets.get(j).contains(c);
+            }
+            if (!allowed) {
+                return false;
             }
         }
-        return lastIndex;
+        return true;
     }
 
     @NotNull
     @SuppressWarnings({"unchecked"})
     public List<String> getSuggestions(@NotNull String word, int threshold) {
-        List<Word> words = delegate.getSuggestions(word, threshold);
-        Set<Character> index = findDictionaryIndex(word);
+        FlightRecorderEvent.Event event = SUGGESTIONS_EVENT.begin();
+        List<Word> words;
+        delegateLock.readLock().lock();
+        try {
+            words = delegate.getSuggestions(word, threshold);
+        } finally {
+            delegateLock.readLock().unlock();
+        }
+        List<Alphabet> alphabets = findDictionaryAlphabets(word);
         List<String> strings = new ArrayList<String>(words.size());
         for (Word w : words) {
             String suggestion = w.getWord();
-            if (index == null || isEntireWordAllowed(suggestion, index)) {
+            if (alphabets.isEmpty() || isEntireWordAllowed(suggestion, alphabets)) {
                 strings.add(suggestion);
             }
         }
+        if (event != null && event.shouldCommit()) {
+            event.commit(word, getLocales(word), threshold, strings.size());
+        }
         return strings;
     }
 
     @NotNull
     public List<String> getVariants(@NotNull String prefix) {
-        if (prefix.length() > 0) {
-            List<String> variants = new ArrayList<String>();
-            userDictionary.appendWordsStartsWith(prefix, variants);
-            Set<Character> index = new HashSet<Character>();
-            indexWord(prefix, index);
-            for (SpellDictionaryImpl dictionary : dictionaries.keySet()) {
-                Set<Character> dictionaryIndex = dictionaries.get(dictionary);
-                if (isSame(index, dictionaryIndex)) {
-                    dictionary.appendWordsStartsWith(prefix, variants);
+        return getVariants(prefix, Integer.MAX_VALUE);
+    }
+
+    @NotNull
+    public List<String> getVariants(@NotNull String prefix, int limit) {
+        if (prefix.length() > 0 && limit > 0) {
+            FlightRecorderEvent.Event event = VARIANTS_EVENT.begin();
+            SpellCheckerState<SpellDictionaryImpl> state = this.state;
+            List<List<String>> variants = new ArrayList<List<String>>();
+            variants.add(Variants.fromWords(state.getWords().getWords(), Locale.getDefault(), prefix, limit));
+            for (SpellDictionaryImpl dictionary : state.getDictionaries()) {
+                if (dictionary.getAlphabet().containsAll(prefix)) {
+                    variants.add(dictionary.getVariants(prefix, limit));
                 }
             }
-            Collections.sort(variants);
-            return variants;
+            List<String> merged = Variants.merge(variants, limit);
+            if (event != null && event.shouldCommit()) {
+                event.commit(prefix, getLocales(prefix), merged.size());
+            }
+            return merged;
         }
         return Collections.emptyList();
     }
 
-    private static boolean isSame(@NotNull Set<Character> i1, @NotNull Set<Character> i2) {
-        if (i1.equals(i2)) {
-            return true;
-        }
-        for (Character c : i1) {
-            if (!i2.contains(c)) {
-                return false;
-            }
-        }
-        return true;
+    public void reset() {
+        reset(Collections.<String>emptyList(), Collections.<String>emptyList());
     }
 
-    public void reset() {
-        delegate.reset();
-        allowed.clear();
-        Collection<Set<Character>> sets = dictionaries.values();
-        for (Set<Character> set : sets) {
-            allowed.addAll(set);
+    public void reset(@NotNull Collection<String> words, @NotNull Collection<String> ignoredWords) {
+        // Built under write lock, so no word added or ignored concurrently lands in replaced sets
+        delegateLock.writeLock().lock();
+        try {
+            delegate.reset();
+            delegate.setUserDictionary(createUserDictionary(words));
+            state = state.withWords(new WordSet(words), Alphabet.of(words), new WordSet(ignoredWords));
+        } finally {
+            delegateLock.writeLock().unlock();
         }
-        setUserDictionary();
     }
 
-    private void setUserDictionary() {
+    @NotNull
+    private static SpellDictionaryHashMap createUserDictionary(@NotNull Collection<String> words) {
         try {
-            userDictionary = new SpellDictionaryImpl(Locale.getDefault());
-            delegate.setUserDictionary(userDictionary);
+            SpellDictionaryHashMap dictionary = new SpellDictionaryHashMap();
+            for (String word : words) {
+                dictionary.addWord(word);
+            }
+            return dictionary;
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
-    private static class SpellDictionaryImpl extends SpellDictionaryHashMap {
+    /**
+     * Bundled dictionary, words and phonetic buckets are kept in {@link DawgWordStore} of {@link CompiledDictionary}.
+     * Phonetic buckets are stored as <code>code + {@link CompiledDictionary#CODE_SEPARATOR} + word</code> entries,
+     * so bucket is a prefix query.
+     */
+    private static class SpellDictionaryImpl extends SpellDictionaryASpell implements SpellCheckerState.Dictionary {
         private final Locale locale;
+        private final Alphabet alphabet;
+        private final DawgWordStore words;
+        private final DawgWordStore codes;
+        private final DawgWordStore variants;
 
-        public SpellDictionaryImpl(Locale locale) throws IOException {
-            this.locale = locale;
-        }
-
-        private SpellDictionaryImpl(Reader wordList, Locale locale) throws IOException {
-            super(wordList);
-            this.locale = locale;
+        private SpellDictionaryImpl(@NotNull CompiledDictionary dictionary) throws IOException {
+            super((File) null);
+            this.locale = dictionary.getLocale();
+            this.alphabet = Alphabet.of(dictionary.getAlphabet());
+            this.words = dictionary.getWords();
+            this.codes = dictionary.getCodes();
+            this.variants = dictionary.getVariants();
         }
 
         @SuppressWarnings({"unchecked"})
-        public Set<Character> getIndexedChars() {
-            Set<Character> index = new HashSet<Character>(64);
-            Collection<List<String>> values = mainDictionary.values();
-            for (List<String> wordList : values) {
-                if (wordList != null) {
-                    for (String word : wordList) {
-                        if (word != null) {
-                            indexWord(word, index);
-                        }
-                    }
-                }
+        protected List<String> getWords(String phoneticCode) {
+            List<String> bucket = new ArrayList<String>();
+            codes.appendWordsStartsWith(phoneticCode + CompiledDictionary.CODE_SEPARATOR, bucket);
+            int prefixLength = phoneticCode.length() + 1;
+            for (int i = 0; i < bucket.size(); i++) {
+                bucket.set(i, bucket.get(i).substring(prefixLength));
             }
-            return Collections.unmodifiableSet(index);
+            return bucket;
         }
 
-        @SuppressWarnings({"unchecked"})
-        public void appendWordsStartsWith(@NotNull String prefix, @NotNull Collection<String> buffer) {
-            String prefixLowerCase = prefix.toLowerCase(locale);
-            Collection<List<String>> values = mainDictionary.values();
-            int prefixLength = prefix.length();
-            StringBuilder builder = new StringBuilder();
-            for (List<String> wordList : values) {
-                if (wordList != null) {
-                    for (String word : wordList) {
-                        if (word != null) {
-                            String lowerCased = word.toLowerCase(locale);
-                            int length = lowerCased.length();
-                            if (lowerCased.startsWith(prefixLowerCase) && length > prefixLength) {
-                                builder.setLength(0);
-                                builder.append(prefix);
-                                builder.append(lowerCased, prefixLength, length);
-                                String value = builder.toString();
-                                if (!buffer.contains(value)) {
-                                    buffer.add(value);
-                                }
-                            }
-                        }
-                    }
-                }
-            }
+        public boolean isCorrect(String word) {
+            return words.contains(word) || words.contains(word.toLowerCase());
+        }
+
+        public boolean contains(@NotNull CharSequence text, int start, int end, boolean lowerCase) {
+            return words.contains(text, start, end, lowerCase);
+        }
+
+        public void addWord(String word) {
+            throw new UnsupportedOperationException("Bundled dictionary is read only");
+        }
+
+        @NotNull
+        public Alphabet getAlphabet() {
+            return alphabet;
+        }
+
+        @NotNull
+        public List<String> getVariants(@NotNull String prefix, int limit) {
+            return Variants.fromStore(variants, locale, prefix, limit);
         }
     }
 
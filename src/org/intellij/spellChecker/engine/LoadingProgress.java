@@ -0,0 +1,45 @@
+/*
+ * Copyright 2007 Sergiy Dubovik, Alexey Efimov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.spellChecker.engine;
+
+/**
+ * Progress of dictionary loading.
+ *
+ * @author Alexey Efimov
+ */
+public interface LoadingProgress {
+    /**
+     * Progress which is never canceled.
+     */
+    LoadingProgress NONE = new LoadingProgress() {
+        public void setFraction(double fraction) {
+        }
+
+        public boolean isCanceled() {
+            return false;
+        }
+    };
+
+    /**
+     * @param fraction Loaded part of input, from 0 to 1
+     */
+    void setFraction(double fraction);
+
+    /**
+     * @return <code>true</code> if loading must be stopped
+     */
+    boolean isCanceled();
+}
@@ -20,6 +20,7 @@ import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
 
@@ -31,22 +32,96 @@ import java.util.Locale;
 public interface SpellChecker {
     void addDictionary(@NotNull InputStream is, @NonNls String encoding, @NotNull Locale locale) throws IOException;
 
+    /**
+     * Load word list, one word per line, in one pass over stream.
+     *
+     * @param is       Word list
+     * @param encoding Encoding of word list
+     * @param locale   Locale of words
+     * @param length   Length of word list in bytes, or -1 if unknown
+     * @param progress Progress of loading
+     * @throws IOException if word list could not be read
+     * @throws java.util.concurrent.CancellationException
+     *                     if progress is canceled, dictionary is not added then
+     */
+    void addDictionary(@NotNull InputStream is, @NonNls String encoding, @NotNull Locale locale,
+                       long length, @NotNull LoadingProgress progress) throws IOException;
+
+    void addDictionary(@NotNull CompiledDictionary dictionary);
+
     void addToDictionary(@NotNull String word);
 
+    /**
+     * Add words to user dictionary, dictionary index is updated once for all words.
+     *
+     * @param words Words
+     */
+    void addAllToDictionary(@NotNull Collection<String> words);
+
+    void removeFromDictionary(@NotNull String word);
+
+    /**
+     * Remove words from user dictionary, dictionary index is rebuilt once for all words.
+     *
+     * @param words Words
+     */
+    void removeAllFromDictionary(@NotNull Collection<String> words);
+
     void ignoreAll(@NotNull String word);
 
+    void unignore(@NotNull String word);
+
     boolean isIgnored(@NotNull String word);
 
+    /**
+     * Check that word from text range or its lower cased form is ignored. Word is not copied.
+     *
+     * @param text  Text
+     * @param start Start offset of word
+     * @param end   End offset of word
+     * @return <code>true</code> if word is ignored
+     */
+    boolean isIgnored(@NotNull CharSequence text, int start, int end);
+
     boolean isCorrect(@NotNull String word);
 
+    /**
+     * Check word from text range, word is also looked up lower cased. Word is not copied.
+     *
+     * @param text  Text
+     * @param start Start offset of word
+     * @param end   End offset of word
+     * @return <code>true</code> if word is correct
+     */
+    boolean isCorrect(@NotNull CharSequence text, int start, int end);
+
     @NotNull
     List<String> getSuggestions(@NotNull String word, int threshold);
 
     @NotNull
     List<String> getVariants(@NotNull String prefix);
 
+    /**
+     * Return completion variants for prefix.
+     *
+     * @param prefix Prefix
+     * @param limit  Maximum count of variants
+     * @return Sorted variants
+     */
+    @NotNull
+    List<String> getVariants(@NotNull String prefix, int limit);
+
     /**
      * This method must clean up user dictionary words and ignored words.
      */
     void reset();
+
+    /**
+     * Replace user dictionary words and ignored words. New words are loaded aside and published at once,
+     * words checked concurrently are checked either against old or against new words.
+     *
+     * @param words        User dictionary words
+     * @param ignoredWords Ignored words
+     */
+    void reset(@NotNull Collection<String> words, @NotNull Collection<String> ignoredWords);
 }
@@ -15,16 +15,58 @@
  */
 package org.intellij.spellChecker.engine;
 
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
 /**
  * Spell checker factory.
  *
  * @author Alexey Efimov
  */
 public final class SpellCheckerFactory {
+    /**
+     * System property to select engine, value is one of {@link Engine} names.
+     */
+    @NonNls
+    public static final String ENGINE_PROPERTY = "spellchecker.engine";
+
     private SpellCheckerFactory() {
     }
 
     public static SpellChecker create() {
-        return new JazzySpellChecker();
+        return create(getDefaultEngine());
+    }
+
+    public static SpellChecker create(@NotNull Engine engine) {
+        switch (engine) {
+            case SYMMETRIC_DELETE:
+                return new SymmetricDeleteSpellChecker();
+            default:
+                return new JazzySpellChecker();
+        }
+    }
+
+    @NotNull
+    private static Engine getDefaultEngine() {
+        String name = System.getProperty(ENGINE_PROPERTY);
+        if (name != null) {
+            for (Engine engine : Engine.values()) {
+                if (engine.name().equalsIgnoreCase(name)) {
+                    return engine;
+                }
+            }
+        }
+        return Engine.JAZZY;
+    }
+
+    public enum Engine {
+        /**
+         * Jazzy phonetic suggestions.
+         */
+        JAZZY,
+        /**
+         * Suggestions from symmetric delete index.
+         */
+        SYMMETRIC_DELETE
     }
 }
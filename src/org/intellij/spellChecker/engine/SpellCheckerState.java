@@ -0,0 +1,180 @@
+/*
+ * Copyright 2007 Sergiy Dubovik, Alexey Efimov
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.spellChecker.engine;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Snapshot of spell checker state: dictionaries, user and ignored words and alphabet of all of them.
+ * <p/>
+ * Checker keeps state in volatile field, words are checked against single snapshot without locks. Dictionaries
+ * and alphabet of snapshot never change, new snapshot is built aside and published by one write of the field.
+ * Snapshot is not immutable: user and ignored words are added to {@link WordSet} of current snapshot in place,
+ * removed user words produce new snapshot. Checker must serialize all changes, including {@link #ignore} and
+ * {@link #unignore}, with building and publishing of new snapshots, otherwise word added to replaced snapshot
+ * is lost.
+ *
+ * @author Alexey Efimov
+ */
+final class SpellCheckerState<D extends SpellCheckerState.Dictionary> {
+    /**
+     * Dictionary with look up by text range.
+     */
+    interface Dictionary {
+        @NotNull
+        Alphabet getAlphabet();
+
+        boolean contains(@NotNull CharSequence text, int start, int end, boolean lowerCase);
+    }
+
+    private final List<D> dictionaries;
+    private final Alphabet base;
+    private final WordSet words;
+    private final WordSet ignored;
+    private final Alphabet allowed;
+
+    private SpellCheckerState(@NotNull List<D> dictionaries, @NotNull Alphabet base,
+                              @NotNull WordSet words, @NotNull WordSet ignored, @NotNull Alphabet allowed) {
+        this.dictionaries = dictionaries;
+        this.base = base;
+        this.words = words;
+        this.ignored = ignored;
+        this.allowed = allowed;
+    }
+
+    @NotNull
+    public static <D extends Dictionary> SpellCheckerState<D> create() {
+        return new SpellCheckerState<D>(Collections.<D>emptyList(), Alphabet.EMPTY, new WordSet(), new WordSet(), Alphabet.EMPTY);
+    }
+
+    @NotNull
+    public List<D> getDictionaries() {
+        return dictionaries;
+    }
+
+    @NotNull
+    public WordSet getWords() {
+        return words;
+    }
+
+    @NotNull
+    public SpellCheckerState<D> withDictionary(@NotNull D dictionary) {
+        List<D> list = new ArrayList<D>(dictionaries.size() + 1);
+        list.addAll(dictionaries);
+        list.add(dictionary);
+        Alphabet alphabet = dictionary.getAlphabet();
+        return new SpellCheckerState<D>(Collections.unmodifiableList(list), base.union(alphabet), words, ignored, allowed.union(alphabet));
+    }
+
+    /**
+     * Add user word to current word set.
+     *
+     * @param word User word
+     * @return This snapshot, or snapshot with extended alphabet
+     */
+    @NotNull
+    public SpellCheckerState<D> withWord(@NotNull String word) {
+        words.add(word);
+        Alphabet alphabet = allowed.with(word);
+        return alphabet != allowed ? new SpellCheckerState<D>(dictionaries, base, words, ignored, alphabet) : this;
+    }
+
+    /**
+     * Add user words to current word set, alphabet is extended once.
+     *
+     * @param words User words
+     * @return This snapshot, or snapshot with extended alphabet
+     */
+    @NotNull
+    public SpellCheckerState<D> withAddedWords(@NotNull Collection<String> words) {
+        this.words.addAll(words);
+        Alphabet alphabet = allowed.union(Alphabet.of(words));
+        return alphabet != allowed ? new SpellCheckerState<D>(dictionaries, base, this.words, ignored, alphabet) : this;
+    }
+
+    /**
+     * Remove user words. Word set and alphabet of remaining words are built aside, so words removed from
+     * alphabet are no longer accepted by it.
+     *
+     * @param words User words
+     * @return New snapshot, or this snapshot if none of words is user word
+     */
+    @NotNull
+    public SpellCheckerState<D> withoutWords(@NotNull Collection<String> words) {
+        WordSet removed = new WordSet(words);
+        List<String> remaining = new ArrayList<String>(this.words.size());
+        for (String word : this.words.getWords()) {
+            if (!removed.contains(word)) {
+                remaining.add(word);
+            }
+        }
+        if (remaining.size() == this.words.size()) {
+            return this;
+        }
+        return withWords(new WordSet(remaining), Alphabet.of(remaining), ignored);
+    }
+
+    public void ignore(@NotNull String word) {
+        ignored.add(word);
+    }
+
+    public void unignore(@NotNull String word) {
+        ignored.remove(word);
+    }
+
+    /**
+     * Replace user and ignored words.
+     *
+     * @param words         User words
+     * @param wordsAlphabet Alphabet of user words
+     * @param ignored       Ignored words
+     * @return New snapshot with the same dictionaries
+     */
+    @NotNull
+    public SpellCheckerState<D> withWords(@NotNull WordSet words, @NotNull Alphabet wordsAlphabet, @NotNull WordSet ignored) {
+        return new SpellCheckerState<D>(dictionaries, base, words, ignored, base.union(wordsAlphabet));
+    }
+
+    public boolean isIgnored(@NotNull CharSequence text, int start, int end) {
+        return !allowed.containsAll(text, start, end) ||
+                ignored.contains(text, start, end, false) ||
+                (!WordSet.isLowerCase(text, start, end) && ignored.contains(text, start, end, true));
+    }
+
+    public boolean isCorrect(@NotNull CharSequence text, int start, int end) {
+        if (!allowed.containsAll(text, start, end) || isCorrect(text, start, end, false)) {
+            return true;
+        }
+        return !WordSet.isLowerCase(text, start, end) && isCorrect(text, start, end, true);
+    }
+
+    private boolean isCorrect(@NotNull CharSequence text, int start, int end, boolean lowerCase) {
+        if (words.contains(text, start, end, lowerCase)) {
+            return true;
+        }
+        for (int i = 0; i < dictionaries.size(); i++) {
+            if (dictionaries.get(i).contains(text, start, end, lowerCase)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2007 Sergiy Dubovik, Alexey Efimov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.spellChecker.engine;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Symmetric delete index of words.
+ * <p/>
+ * For every word the index keeps hashes of all strings produced by deleting up to {@link #MAX_EDIT_DISTANCE}
+ * characters from the lower cased word prefix. Candidates for a misspelled word are found by probing the index
+ * with the deletes of the misspelled word, so lookup costs a few hash probes instead of a dictionary scan.
+ * Deletes are hashed without creating strings, hash collisions only produce extra candidates which are dropped
+ * by the edit distance verification of the caller.
+ *
+ * @author Alexey Efimov
+ */
+final class SymmetricDeleteIndex implements SpellCheckerState.Dictionary {
+    static final int MAX_EDIT_DISTANCE = 2;
+    static final int PREFIX_LENGTH = 7;
+    // 1 + 7 + 7 * 6 / 2 deletes of prefix with length 7
+    private static final int MAX_DELETES = 29;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final Locale locale;
+    private final List<String> words = new ArrayList<String>();
+    private final WordSet known = new WordSet();
+
+    private int[] buckets = new int[INITIAL_CAPACITY];
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private int[] next = new int[INITIAL_CAPACITY];
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private int size;
+    private Alphabet alphabet = Alphabet.EMPTY;
+    private DawgWordStore variants;
+
+    SymmetricDeleteIndex(@NotNull Locale locale) {
+        this.locale = locale;
+    }
+
+    @NotNull
+    public Locale getLocale() {
+        return locale;
+    }
+
+    public int getWordCount() {
+        return words.size();
+    }
+
+    @NotNull
+    public String getWord(int id) {
+        return words.get(id);
+    }
+
+    /**
+     * @return Characters of all words
+     */
+    @NotNull
+    public Alphabet getAlphabet() {
+        return alphabet;
+    }
+
+    @NotNull
+    public List<String> getWords() {
+        return Collections.unmodifiableList(words);
+    }
+
+    /**
+     * Set store of completion variants for complete dictionary, otherwise variants are found by scan of words.
+     *
+     * @param variants Store built by {@link Variants#buildStore(Collection, Locale)}
+     */
+    public void setVariants(@NotNull DawgWordStore variants) {
+        this.variants = variants;
+    }
+
+    @NotNull
+    public List<String> getVariants(@NotNull String prefix, int limit) {
+        return variants != null ?
+                Variants.fromStore(variants, locale, prefix, limit) :
+                Variants.fromWords(words, locale, prefix, limit);
+    }
+
+    public boolean contains(@NotNull String word) {
+        return known.contains(word);
+    }
+
+    public boolean contains(@NotNull CharSequence text, int start, int end, boolean lowerCase) {
+        return known.contains(text, start, end, lowerCase);
+    }
+
+    public void add(@NotNull String word) {
+        if (word.length() > 0 && known.add(word)) {
+            int id = words.size();
+            words.add(word);
+            alphabet = alphabet.with(word);
+            int[] deletes = new int[MAX_DELETES];
+            int count = deletes(word, deletes);
+            for (int i = 0; i < count; i++) {
+                put(deletes[i], id);
+            }
+        }
+    }
+
+    /**
+     * Collect ids of words which prefixes are in {@link #MAX_EDIT_DISTANCE} deletes from prefix of given word.
+     *
+     * @param word       Misspelled word
+     * @param candidates Buffer for candidate ids, ids may repeat
+     */
+    public void collectCandidates(@NotNull String word, @NotNull Collection<Integer> candidates) {
+        int[] deletes = new int[MAX_DELETES];
+        int count = deletes(word, deletes);
+        int mask = buckets.length - 1;
+        for (int i = 0; i < count; i++) {
+            int hash = deletes[i];
+            for (int entry = buckets[hash & mask] - 1; entry >= 0; entry = next[entry] - 1) {
+                if (hashes[entry] == hash) {
+                    candidates.add(ids[entry]);
+                }
+            }
+        }
+    }
+
+    private int deletes(@NotNull String word, @NotNull int[] deletes) {
+        String lowerCased = word.toLowerCase(locale);
+        int length = Math.min(lowerCased.length(), PREFIX_LENGTH);
+        int count = 0;
+        count = addUnique(deletes, count, hash(lowerCased, length, -1, -1));
+        for (int i = 0; i < length && length > 1; i++) {
+            count = addUnique(deletes, count, hash(lowerCased, length, i, -1));
+            for (int j = i + 1; j < length && length > 2; j++) {
+                count = addUnique(deletes, count, hash(lowerCased, length, i, j));
+            }
+        }
+        return count;
+    }
+
+    private static int addUnique(int[] deletes, int count, int hash) {
+        for (int i = 0; i < count; i++) {
+            if (deletes[i] == hash) {
+                return count;
+            }
+        }
+        deletes[count] = hash;
+        return count + 1;
+    }
+
+    private static int hash(CharSequence word, int length, int skip1, int skip2) {
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            if (i != skip1 && i != skip2) {
+                hash = 31 * hash + word.charAt(i);
+            }
+        }
+        // Spread low bits, buckets are selected by mask
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    private void put(int hash, int id) {
+        if (size == hashes.length) {
+            int capacity = size + (size >> 1);
+            hashes = grow(hashes, capacity);
+            next = grow(next, capacity);
+            ids = grow(ids, capacity);
+        }
+        if (size >= buckets.length) {
+            rehash(buckets.length << 1);
+        }
+        int bucket = hash & (buckets.length - 1);
+        hashes[size] = hash;
+        ids[size] = id;
+        next[size] = buckets[bucket];
+        buckets[bucket] = ++size;
+    }
+
+    private static int[] grow(int[] array, int capacity) {
+        int[] grown = new int[capacity];
+        System.arraycopy(array, 0, grown, 0, array.length);
+        return grown;
+    }
+
+    private void rehash(int capacity) {
+        buckets = new int[capacity];
+        int mask = capacity - 1;
+        for (int entry = 0; entry < size; entry++) {
+            int bucket = hashes[entry] & mask;
+            next[entry] = buckets[bucket];
+            buckets[bucket] = entry + 1;
+        }
+    }
+}
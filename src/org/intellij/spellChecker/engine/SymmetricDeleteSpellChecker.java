@@ -0,0 +1,299 @@
+/*
+ * Copyright 2007 Sergiy Dubovik, Alexey Efimov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.spellChecker.engine;
+
+import com.swabunga.spell.engine.Configuration;
+import com.swabunga.spell.engine.EditDistance;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Spell checker with suggestions looked up in symmetric delete index.
+ * <p/>
+ * Suggestions are scored by Jazzy edit distance and filtered by the same configured threshold as in
+ * {@link JazzySpellChecker}, so both implementations are interchangeable.
+ * <p/>
+ * Checker is thread safe. Words are checked without locks against {@link SpellCheckerState} snapshot, all
+ * changes of snapshot, user and ignored words and user dictionary index take write lock, user dictionary index is
+ * read under read lock by suggestions and variants.
+ *
+ * @author Alexey Efimov
+ */
+final class SymmetricDeleteSpellChecker implements SpellChecker {
+    private static final int MATRIX_SIZE = 64;
+
+    private final ReadWriteLock userDictionaryLock = new ReentrantReadWriteLock();
+    private volatile SpellCheckerState<SymmetricDeleteIndex> state = SpellCheckerState.create();
+    private SymmetricDeleteIndex userDictionary = createUserDictionary(Collections.<String>emptyList());
+
+    public void addDictionary(@NotNull InputStream is, @NonNls String encoding, @NotNull Locale locale) throws IOException {
+        addDictionary(is, encoding, locale, -1, LoadingProgress.NONE);
+    }
+
+    public void addDictionary(@NotNull InputStream is, @NonNls String encoding, @NotNull Locale locale,
+                              long length, @NotNull LoadingProgress progress) throws IOException {
+        final SymmetricDeleteIndex dictionary = new SymmetricDeleteIndex(locale);
+        new WordListReader(is, Charset.forName(encoding), length, progress).read(new WordListReader.WordHandler() {
+            public void word(@NotNull String word) {
+                dictionary.add(word);
+            }
+        });
+        dictionary.setVariants(Variants.buildStore(dictionary.getWords(), locale));
+        addDictionary(dictionary);
+    }
+
+    public void addDictionary(@NotNull CompiledDictionary dictionary) {
+        SymmetricDeleteIndex index = new SymmetricDeleteIndex(dictionary.getLocale());
+        List<String> words = new ArrayList<String>(dictionary.getWordCount());
+        dictionary.getWords().appendWordsStartsWith("", words);
+        for (String word : words) {
+            index.add(word);
+        }
+        index.setVariants(dictionary.getVariants());
+        addDictionary(index);
+    }
+
+    private void addDictionary(@NotNull SymmetricDeleteIndex dictionary) {
+        userDictionaryLock.writeLock().lock();
+        try {
+            state = state.withDictionary(dictionary);
+        } finally {
+            userDictionaryLock.writeLock().unlock();
+        }
+    }
+
+    public void addToDictionary(@NotNull String word) {
+        userDictionaryLock.writeLock().lock();
+        try {
+            userDictionary.add(word);
+            state = state.withWord(word);
+        } finally {
+            userDictionaryLock.writeLock().unlock();
+        }
+    }
+
+    public void addAllToDictionary(@NotNull Collection<String> words) {
+        userDictionaryLock.writeLock().lock();
+        try {
+            for (String word : words) {
+                userDictionary.add(word);
+            }
+            state = state.withAddedWords(words);
+        } finally {
+            userDictionaryLock.writeLock().unlock();
+        }
+    }
+
+    public void removeFromDictionary(@NotNull String word) {
+        removeAllFromDictionary(Collections.singleton(word));
+    }
+
+    public void removeAllFromDictionary(@NotNull Collection<String> words) {
+        userDictionaryLock.writeLock().lock();
+        try {
+            SpellCheckerState<SymmetricDeleteIndex> removed = state.withoutWords(words);
+            if (removed != state) {
+                // Index can't remove words, it is rebuilt from remaining words
+                userDictionary = createUserDictionary(removed.getWords().getWords());
+                state = removed;
+            }
+        } finally {
+            userDictionaryLock.writeLock().unlock();
+        }
+    }
+
+    public void ignoreAll(@NotNull String word) {
+        userDictionaryLock.writeLock().lock();
+        try {
+            state.ignore(word);
+        } finally {
+            userDictionaryLock.writeLock().unlock();
+        }
+    }
+
+    public void unignore(@NotNull String word) {
+        userDictionaryLock.writeLock().lock();
+        try {
+            state.unignore(word);
+        } finally {
+            userDictionaryLock.writeLock().unlock();
+        }
+    }
+
+    public boolean isIgnored(@NotNull String word) {
+        return isIgnored(word, 0, word.length());
+    }
+
+    public boolean isIgnored(@NotNull CharSequence text, int start, int end) {
+        return state.isIgnored(text, start, end);
+    }
+
+    public boolean isCorrect(@NotNull String word) {
+        return isCorrect(word, 0, word.length());
+    }
+
+    public boolean isCorrect(@NotNull CharSequence text, int start, int end) {
+        return state.isCorrect(text, start, end);
+    }
+
+    /**
+     * Return suggestions from dictionaries which alphabet covers the word. Same as in Jazzy, candidates are
+     * filtered by {@link Configuration#SPELL_THRESHOLD}, and if none is close enough the best scored candidates
+     * are returned.
+     *
+     * @param word      Misspelled word
+     * @param threshold Suggestions threshold, passed for compatibility with Jazzy engine
+     * @return Suggestions sorted by edit distance
+     */
+    @NotNull
+    public List<String> getSuggestions(@NotNull String word, int threshold) {
+        if (word.length() == 0) {
+            return Collections.emptyList();
+        }
+        userDictionaryLock.readLock().lock();
+        try {
+            return findSuggestions(word);
+        } finally {
+            userDictionaryLock.readLock().unlock();
+        }
+    }
+
+    @NotNull
+    private List<String> findSuggestions(@NotNull String word) {
+        int configDistance = Configuration.getConfiguration().getInteger(Configuration.SPELL_THRESHOLD);
+        int[][] matrix = new int[MATRIX_SIZE][MATRIX_SIZE];
+        List<Suggestion> suggestions = new ArrayList<Suggestion>();
+        List<Suggestion> bestGuesses = new ArrayList<Suggestion>();
+        int bestScore = Integer.MAX_VALUE;
+        Set<String> seen = new HashSet<String>();
+        Set<Integer> candidates = new HashSet<Integer>();
+        for (SymmetricDeleteIndex dictionary : indexesFor(word)) {
+            candidates.clear();
+            dictionary.collectCandidates(word, candidates);
+            for (Integer id : candidates) {
+                String candidate = dictionary.getWord(id);
+                if (Math.abs(candidate.length() - word.length()) <= SymmetricDeleteIndex.MAX_EDIT_DISTANCE && seen.add(candidate)) {
+                    int distance = EditDistance.getDistance(word, candidate, matrix);
+                    if (distance < configDistance) {
+                        suggestions.add(new Suggestion(candidate, distance));
+                    } else if (suggestions.isEmpty() && distance <= bestScore) {
+                        if (distance < bestScore) {
+                            bestGuesses.clear();
+                            bestScore = distance;
+                        }
+                        bestGuesses.add(new Suggestion(candidate, distance));
+                    }
+                }
+            }
+        }
+        if (suggestions.isEmpty()) {
+            suggestions = bestGuesses;
+        }
+        Collections.sort(suggestions);
+        List<String> strings = new ArrayList<String>(suggestions.size());
+        for (Suggestion suggestion : suggestions) {
+            strings.add(suggestion.word);
+        }
+        return strings;
+    }
+
+    @NotNull
+    private List<SymmetricDeleteIndex> indexesFor(@NotNull String word) {
+        List<SymmetricDeleteIndex> dictionaries = state.getDictionaries();
+        List<SymmetricDeleteIndex> indexes = new ArrayList<SymmetricDeleteIndex>(dictionaries.size() + 1);
+        for (SymmetricDeleteIndex dictionary : dictionaries) {
+            if (dictionary.getAlphabet().containsAll(word)) {
+                indexes.add(dictionary);
+            }
+        }
+        if (indexes.isEmpty()) {
+            // Word is not from any alphabet, look up everywhere
+            indexes.addAll(dictionaries);
+        }
+        indexes.add(userDictionary);
+        return indexes;
+    }
+
+    @NotNull
+    public List<String> getVariants(@NotNull String prefix) {
+        return getVariants(prefix, Integer.MAX_VALUE);
+    }
+
+    @NotNull
+    public List<String> getVariants(@NotNull String prefix, int limit) {
+        if (prefix.length() > 0 && limit > 0) {
+            List<List<String>> variants = new ArrayList<List<String>>();
+            userDictionaryLock.readLock().lock();
+            try {
+                variants.add(userDictionary.getVariants(prefix, limit));
+            } finally {
+                userDictionaryLock.readLock().unlock();
+            }
+            for (SymmetricDeleteIndex dictionary : state.getDictionaries()) {
+                if (dictionary.getAlphabet().containsAll(prefix)) {
+                    variants.add(dictionary.getVariants(prefix, limit));
+                }
+            }
+            return Variants.merge(variants, limit);
+        }
+        return Collections.emptyList();
+    }
+
+    public void reset() {
+        reset(Collections.<String>emptyList(), Collections.<String>emptyList());
+    }
+
+    public void reset(@NotNull Collection<String> words, @NotNull Collection<String> ignoredWords) {
+        // Built under write lock, so no word added or ignored concurrently lands in replaced sets
+        userDictionaryLock.writeLock().lock();
+        try {
+            userDictionary = createUserDictionary(words);
+            state = state.withWords(new WordSet(words), Alphabet.of(words), new WordSet(ignoredWords));
+        } finally {
+            userDictionaryLock.writeLock().unlock();
+        }
+    }
+
+    @NotNull
+    private static SymmetricDeleteIndex createUserDictionary(@NotNull Collection<String> words) {
+        SymmetricDeleteIndex index = new SymmetricDeleteIndex(Locale.getDefault());
+        for (String word : words) {
+            index.add(word);
+        }
+        return index;
+    }
+
+    private static final class Suggestion implements Comparable<Suggestion> {
+        private final String word;
+        private final int distance;
+
+        private Suggestion(String word, int distance) {
+            this.word = word;
+            this.distance = distance;
+        }
+
+        public int compareTo(Suggestion o) {
+            return distance != o.distance ? distance - o.distance : word.compareTo(o.word);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2007 Sergiy Dubovik, Alexey Efimov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.spellChecker.engine;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Word completion variants utility. Variant is the prefix as typed, followed by lower cased rest of dictionary word.
+ * Variants of every dictionary are collected in sorted order, so lists of several dictionaries are merged.
+ *
+ * @author Alexey Efimov
+ */
+final class Variants {
+    private Variants() {
+    }
+
+    /**
+     * Build store of lower cased words to look up variants.
+     *
+     * @param words  Dictionary words
+     * @param locale Dictionary locale
+     * @return Variants store
+     */
+    @NotNull
+    public static DawgWordStore buildStore(@NotNull Collection<String> words, @NotNull Locale locale) {
+        Set<String> lowerCased = new HashSet<String>(words.size());
+        for (String word : words) {
+            lowerCased.add(word.toLowerCase(locale));
+        }
+        return DawgWordStore.build(lowerCased);
+    }
+
+    /**
+     * Return sorted variants from store built by {@link #buildStore(Collection, Locale)}.
+     *
+     * @param store  Variants store
+     * @param locale Dictionary locale
+     * @param prefix Prefix
+     * @param limit  Maximum count of variants
+     * @return Variants
+     */
+    @NotNull
+    public static List<String> fromStore(@NotNull DawgWordStore store, @NotNull Locale locale, @NotNull String prefix, int limit) {
+        String lowerCasedPrefix = prefix.toLowerCase(locale);
+        List<String> words = new ArrayList<String>();
+        // Prefix itself is not a variant
+        store.appendWordsStartsWith(lowerCasedPrefix, words, limit < Integer.MAX_VALUE ? limit + 1 : limit);
+        List<String> variants = new ArrayList<String>(words.size());
+        for (String word : words) {
+            if (word.length() > lowerCasedPrefix.length() && variants.size() < limit) {
+                variants.add(prefix + word.substring(lowerCasedPrefix.length()));
+            }
+        }
+        return variants;
+    }
+
+    /**
+     * Return sorted variants by scan of words. Used for small user dictionaries.
+     *
+     * @param words  Words
+     * @param locale Words locale
+     * @param prefix Prefix
+     * @param limit  Maximum count of variants
+     * @return Variants
+     */
+    @NotNull
+    public static List<String> fromWords(@NotNull Collection<String> words, @NotNull Locale locale, @NotNull String prefix, int limit) {
+        String lowerCasedPrefix = prefix.toLowerCase(locale);
+        SortedSet<String> variants = new TreeSet<String>();
+        for (String word : words) {
+            String lowerCased = word.toLowerCase(locale);
+            if (lowerCased.length() > lowerCasedPrefix.length() && lowerCased.startsWith(lowerCasedPrefix)) {
+                variants.add(prefix + lowerCased.substring(lowerCasedPrefix.length()));
+            }
+        }
+        List<String> list = new ArrayList<String>(Math.min(limit, variants.size()));
+        for (Iterator<String> iterator = variants.iterator(); iterator.hasNext() && list.size() < limit;) {
+            list.add(iterator.next());
+        }
+        return list;
+    }
+
+    /**
+     * Merge sorted lists, dropping duplicates.
+     *
+     * @param lists Sorted lists
+     * @param limit Maximum count of variants
+     * @return Sorted variants
+     */
+    @NotNull
+    public static List<String> merge(@NotNull List<List<String>> lists, int limit) {
+        if (lists.size() == 1) {
+            return lists.get(0);
+        }
+        List<String> merged = new ArrayList<String>();
+        int[] positions = new int[lists.size()];
+        String last = null;
+        while (merged.size() < limit) {
+            int min = -1;
+            for (int i = 0; i < positions.length; i++) {
+                List<String> list = lists.get(i);
+                if (positions[i] < list.size() &&
+                        (min == -1 || list.get(positions[i]).compareTo(lists.get(min).get(positions[min])) < 0)) {
+                    min = i;
+                }
+            }
+            if (min == -1) {
+                break;
+            }
+            String variant = lists.get(min).get(positions[min]++);
+            if (!variant.equals(last)) {
+                merged.add(variant);
+                last = variant;
+            }
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2007 Sergiy Dubovik, Alexey Efimov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.spellChecker.engine;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.concurrent.CancellationException;
+import java.util.zip.CRC32;
+
+/**
+ * Streaming reader of word list, one word per line.
+ * <p/>
+ * Bytes are read by chunks through channel and decoded by one decoder into char buffer, words are created right
+ * from decoded chars, so input is not copied into lines or intermediate strings. Line breaks are the same as for
+ * {@link java.io.BufferedReader#readLine()}, empty lines are skipped and malformed input is replaced. CRC32 of read
+ * bytes is computed on the way, so source of compiled dictionary is identified without second pass.
+ *
+ * @author Alexey Efimov
+ */
+final class WordListReader {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ReadableByteChannel channel;
+    private final CharsetDecoder decoder;
+    private final long length;
+    private final LoadingProgress progress;
+    private final CRC32 checksum = new CRC32();
+
+    /**
+     * Handler of read words.
+     */
+    interface WordHandler {
+        void word(@NotNull String word);
+    }
+
+    /**
+     * @param is       Input stream, file stream is read through its file channel
+     * @param charset  Charset of word list
+     * @param length   Length of input in bytes, or -1 if unknown
+     * @param progress Progress of reading
+     */
+    WordListReader(@NotNull InputStream is, @NotNull Charset charset, long length, @NotNull LoadingProgress progress) {
+        this.channel = is instanceof FileInputStream ? ((FileInputStream) is).getChannel() : Channels.newChannel(is);
+        this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.length = length;
+        this.progress = progress;
+    }
+
+    /**
+     * Read all words.
+     *
+     * @param handler Handler of words
+     * @throws IOException           if input could not be read
+     * @throws CancellationException if progress is canceled
+     */
+    public void read(@NotNull WordHandler handler) throws IOException {
+        ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+        CharBuffer out = CharBuffer.allocate(BUFFER_SIZE);
+        decoder.reset();
+        long total = 0;
+        boolean eof = false;
+        boolean flushed = false;
+        while (!flushed) {
+            if (progress.isCanceled()) {
+                throw new CancellationException();
+            }
+            if (!eof) {
+                int position = in.position();
+                int count = channel.read(in);
+                if (count < 0) {
+                    eof = true;
+                } else {
+                    checksum.update(in.array(), position, count);
+                    total += count;
+                }
+            }
+            in.flip();
+            CoderResult result = decoder.decode(in, out, eof);
+            in.compact();
+            if (result.isError()) {
+                result.throwException();
+            }
+            if (eof && result.isUnderflow()) {
+                result = decoder.flush(out);
+                if (result.isError()) {
+                    result.throwException();
+                }
+                flushed = result.isUnderflow();
+            }
+            out.flip();
+            split(out, flushed, handler);
+            out.compact();
+            if (out.position() == out.capacity()) {
+                // Line is longer than buffer
+                CharBuffer grown = CharBuffer.allocate(out.capacity() * 2);
+                out.flip();
+                grown.put(out);
+                out = grown;
+            }
+            if (length > 0) {
+                progress.setFraction(Math.min(1.0, (double) total / length));
+            }
+        }
+        progress.setFraction(1.0);
+    }
+
+    /**
+     * @return CRC32 of bytes read so far
+     */
+    public long getChecksum() {
+        return checksum.getValue();
+    }
+
+    /**
+     * Pass complete lines of buffer to handler and leave incomplete last line in buffer.
+     *
+     * @param chars   Decoded chars
+     * @param last    <code>true</code> if there is no more input, so last line is complete
+     * @param handler Handler of words
+     */
+    private static void split(@NotNull CharBuffer chars, boolean last, @NotNull WordHandler handler) {
+        char[] array = chars.array();
+        int limit = chars.limit();
+        int start = chars.position();
+        for (int i = start; i < limit; i++) {
+            char c = array[i];
+            if (c == '\n' || c == '\r') {
+                if (i > start) {
+                    handler.word(new String(array, start, i - start));
+                }
+                start = i + 1;
+            }
+        }
+        if (last && start < limit) {
+            handler.word(new String(array, start, limit - start));
+            start = limit;
+        }
+        chars.position(start);
+    }
+}
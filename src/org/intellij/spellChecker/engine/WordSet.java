@@ -0,0 +1,244 @@
+/*
+ * Copyright 2007 Sergiy Dubovik, Alexey Efimov
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.spellChecker.engine;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Set of words with look up by text range. Words are kept in open addressing table and hashed as
+ * {@link String#hashCode()}, so range is hashed and compared in place, optionally lower cased.
+ * <p/>
+ * Set is thread safe, changes are synchronized and look ups are not blocked. Words are only added to table,
+ * table is replaced on rehash, removal and clear, so reader always probes consistent table.
+ *
+ * @author Alexey Efimov
+ */
+final class WordSet {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private volatile String[] table;
+    private int size;
+
+    WordSet() {
+        table = new String[INITIAL_CAPACITY];
+    }
+
+    WordSet(@NotNull Collection<String> words) {
+        int capacity = INITIAL_CAPACITY;
+        while (capacity < words.size() * 2) {
+            capacity <<= 1;
+        }
+        String[] table = new String[capacity];
+        for (String word : words) {
+            if (!contains(table, word, 0, word.length(), false)) {
+                insert(table, word);
+                size++;
+            }
+        }
+        this.table = table;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @param word Word
+     * @return <code>true</code> if word was not in set
+     */
+    public synchronized boolean add(@NotNull String word) {
+        if (contains(word, 0, word.length(), false)) {
+            return false;
+        }
+        if ((size + 1) * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        insert(table, word);
+        size++;
+        return true;
+    }
+
+    /**
+     * Add words with at most one rehash.
+     *
+     * @param words Words
+     * @return <code>true</code> if any word was not in set
+     */
+    public synchronized boolean addAll(@NotNull Collection<String> words) {
+        int capacity = table.length;
+        while ((size + words.size()) * 2 > capacity) {
+            capacity <<= 1;
+        }
+        if (capacity > table.length) {
+            rehash(capacity);
+        }
+        String[] table = this.table;
+        int added = 0;
+        for (String word : words) {
+            if (!contains(table, word, 0, word.length(), false)) {
+                insert(table, word);
+                added++;
+            }
+        }
+        size += added;
+        return added > 0;
+    }
+
+    /**
+     * @param word Word
+     * @return <code>true</code> if word was in set
+     */
+    public boolean remove(@NotNull String word) {
+        return removeAll(Collections.singleton(word));
+    }
+
+    /**
+     * Remove words, table is rebuilt once.
+     *
+     * @param words Words
+     * @return <code>true</code> if any word was in set
+     */
+    public synchronized boolean removeAll(@NotNull Collection<String> words) {
+        WordSet removed = new WordSet(words);
+        String[] rehashed = new String[table.length];
+        int count = 0;
+        for (String word : table) {
+            if (word != null) {
+                if (removed.contains(word)) {
+                    count++;
+                } else {
+                    insert(rehashed, word);
+                }
+            }
+        }
+        if (count == 0) {
+            return false;
+        }
+        table = rehashed;
+        size -= count;
+        return true;
+    }
+
+    public synchronized void clear() {
+        table = new String[INITIAL_CAPACITY];
+        size = 0;
+    }
+
+    public boolean contains(@NotNull CharSequence word) {
+        return contains(word, 0, word.length(), false);
+    }
+
+    /**
+     * Check that set contains word from text range.
+     *
+     * @param text      Text
+     * @param start     Start offset of word
+     * @param end       End offset of word
+     * @param lowerCase Look up word lower cased by {@link Character#toLowerCase(char)}
+     * @return <code>true</code> if word is found
+     */
+    public boolean contains(@NotNull CharSequence text, int start, int end, boolean lowerCase) {
+        return contains(table, text, start, end, lowerCase);
+    }
+
+    private static boolean contains(String[] table, CharSequence text, int start, int end, boolean lowerCase) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + charAt(text, i, lowerCase);
+        }
+        int mask = table.length - 1;
+        for (int index = spread(hash) & mask; table[index] != null; index = (index + 1) & mask) {
+            String word = table[index];
+            if (word.hashCode() == hash && equals(word, text, start, end, lowerCase)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @NotNull
+    public List<String> getWords() {
+        String[] table = this.table;
+        List<String> words = new ArrayList<String>();
+        for (String word : table) {
+            if (word != null) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * @param text  Text
+     * @param start Start offset of word
+     * @param end   End offset of word
+     * @return <code>true</code> if {@link Character#toLowerCase(char)} does not change word
+     */
+    public static boolean isLowerCase(@NotNull CharSequence text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (Character.toLowerCase(c) != c) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static char charAt(CharSequence text, int index, boolean lowerCase) {
+        char c = text.charAt(index);
+        return lowerCase ? Character.toLowerCase(c) : c;
+    }
+
+    private static boolean equals(String word, CharSequence text, int start, int end, boolean lowerCase) {
+        if (word.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (word.charAt(i) != charAt(text, start + i, lowerCase)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static void insert(String[] table, String word) {
+        int mask = table.length - 1;
+        int index = spread(word.hashCode()) & mask;
+        while (table[index] != null) {
+            index = (index + 1) & mask;
+        }
+        table[index] = word;
+    }
+
+    private void rehash(int capacity) {
+        String[] rehashed = new String[capacity];
+        for (String word : table) {
+            if (word != null) {
+                insert(rehashed, word);
+            }
+        }
+        table = rehashed;
+    }
+}
@@ -19,40 +19,50 @@ import com.intellij.codeInspection.InspectionManager;
 import com.intellij.codeInspection.ProblemDescriptor;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiRecursiveElementVisitor;
+import org.intellij.spellChecker.SpellCheckerManager;
+import org.intellij.spellChecker.util.FlightRecorderEvent;
 import org.intellij.spellChecker.util.Strings;
-import org.jetbrains.annotations.NonNls;
+import org.intellij.spellChecker.util.WordSplitter;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
- * Base visitor support for spelling.
+ * Base visitor support for spelling. Check of element text slower than threshold is reported as Flight Recorder
+ * event with file, element, count of words and misspellings.
  *
  * @author Alexey Efimov
  */
 public abstract class AbstractSpellCheckerVisitor extends PsiRecursiveElementVisitor implements SpellCheckerVisitor {
+    private static final FlightRecorderEvent ELEMENT_EVENT = FlightRecorderEvent.define(
+            "org.intellij.spellChecker.ElementCheck", "Spelling Element Check", "1 ms",
+            new String[]{"file", "element", "length", "words", "misspellings"},
+            new Class<?>[]{String.class, String.class, int.class, int.class, int.class});
+
     protected InspectionManager inspectionManager;
-    @NonNls
-    private static final Pattern NON_SPACE = Pattern.compile("\\S+");
-    @NonNls
-    private static final Pattern WORD = Pattern.compile("\\b\\p{L}+'?\\p{L}*\\b");
-    @NonNls
-    private static final Pattern URL = Pattern.compile("(https?|ftp|mailto)\\:\\/\\/");
-    @NonNls
-    private static final Pattern COMPLEX = Pattern.compile("(\\.[^\\.]+)|([@_]+)");
     private List<ProblemDescriptor> problems;
+    private int wordCount;
 
     protected AbstractSpellCheckerVisitor(InspectionManager inspectionManager) {
         this.inspectionManager = inspectionManager;
     }
 
+    /**
+     * Create problems for misspelled word, word is already checked by visitor.
+     *
+     * @param element   Element
+     * @param textRange Range of word in element
+     * @param word      Misspelled word
+     * @return Problems
+     */
+    @NotNull
     protected List<ProblemDescriptor> inspect(@NotNull PsiElement element, @NotNull TextRange textRange, @NotNull String word) {
-        return SpellCheckerInspector.inspectWithChangeTo(inspectionManager, element, textRange, word);
+        return Collections.singletonList(SpellCheckerInspector.createChangeToProblem(inspectionManager, element, textRange, word));
     }
 
     @NotNull
@@ -60,45 +70,55 @@ public abstract class AbstractSpellCheckerVisitor extends PsiRecursiveElementVis
         return TextRange.from(range.getStartOffset() + start, end - start);
     }
 
-    @NotNull
-    private static TextRange matcherRange(@NotNull TextRange range, @NotNull Matcher matcher) {
-        return subRange(range, matcher.start(), matcher.end());
-    }
-
     protected void forEachWord(@NotNull PsiElement element, @NotNull String text) {
         forEachWord(element, TextRange.from(0, text.length()), text);
     }
 
-    protected void forEachWord(@NotNull PsiElement element, @NotNull TextRange range, @NotNull String text) {
-        // Create a pattern to match breaks
-        Matcher matcher = NON_SPACE.matcher(text);
-        while (matcher.find()) {
-            visitNonSpace(element, matcherRange(range, matcher));
-        }
-    }
-
-    private void visitNonSpace(@NotNull PsiElement element, TextRange range) {
-        if (range.getLength() > 1) {
-            String text = range.substring(element.getText());
-            if (!URL.matcher(text).find() && !COMPLEX.matcher(text).find()) {
-                Matcher matcher = WORD.matcher(text);
-                while (matcher.find()) {
-                    visitWord(element, matcherRange(range, matcher));
+    protected void forEachWord(@NotNull final PsiElement element, @NotNull final TextRange range, @NotNull String text) {
+        FlightRecorderEvent.Event event = ELEMENT_EVENT.begin();
+        final int[] counts = new int[2];
+        WordSplitter.split(text, new WordSplitter.WordProcessor() {
+            public void processWord(@NotNull CharSequence text, int start, int end) {
+                counts[0]++;
+                if (visitWord(element, range, text, start, end)) {
+                    counts[1]++;
                 }
             }
+        });
+        countWords(counts[0]);
+        if (event != null && event.shouldCommit()) {
+            PsiFile file = element.getContainingFile();
+            event.commit(file != null ? file.getName() : "", element.getClass().getSimpleName(), text.length(),
+                    counts[0], counts[1]);
         }
     }
 
-    private void visitWord(@NotNull PsiElement element, TextRange range) {
-        if (range.getLength() > 1) {
-            String word = range.substring(element.getText());
-            if (!Strings.isMixedCase(word)) {
-                List<ProblemDescriptor> list = inspect(element, range, word);
-                if (list.size() > 0) {
-                    addAll(list);
-                }
+    private boolean visitWord(@NotNull PsiElement element, @NotNull TextRange range, @NotNull CharSequence text, int start, int end) {
+        // Only misspelled words are copied from text
+        if (!Strings.isMixedCase(text, start, end) && SpellCheckerManager.getInstance().hasProblem(text, start, end)) {
+            List<ProblemDescriptor> list = inspect(element, subRange(range, start, end), text.subSequence(start, end).toString());
+            if (list.size() > 0) {
+                addAll(list);
             }
+            return true;
         }
+        return false;
+    }
+
+    /**
+     * Count words checked without {@link #forEachWord}.
+     *
+     * @param count Count of words
+     */
+    protected final void countWords(int count) {
+        wordCount += count;
+    }
+
+    /**
+     * @return Count of words checked by visitor
+     */
+    public int getWordCount() {
+        return wordCount;
     }
 
     private void assertInit() {
@@ -21,6 +21,7 @@ import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.TextRange;
 import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import org.intellij.spellChecker.util.SpellCheckerBundle;
 import org.jetbrains.annotations.NotNull;
@@ -57,10 +58,21 @@ public class ChangeToQuickFix implements SpellCheckerQuickFix {
     }
 
     public void applyFix(@NotNull Project project, @NotNull ProblemDescriptor descriptor) {
-        PsiDocumentManager documentManager = PsiDocumentManager.getInstance(project);
-        PsiFile psiFile = descriptor.getPsiElement().getContainingFile();
+        replace(descriptor.getPsiElement(), textRange, correctWord);
+    }
+
+    /**
+     * Replace text range of element by correct word.
+     *
+     * @param element     Element with misspelled word
+     * @param textRange   Range of misspelled word in element
+     * @param correctWord Correct word
+     */
+    static void replace(@NotNull PsiElement element, @NotNull TextRange textRange, @NotNull String correctWord) {
+        PsiDocumentManager documentManager = PsiDocumentManager.getInstance(element.getProject());
+        PsiFile psiFile = element.getContainingFile();
         Document document = documentManager.getDocument(psiFile);
-        int psiElementOffset = descriptor.getPsiElement().getTextRange().getStartOffset();
+        int psiElementOffset = element.getTextRange().getStartOffset();
         if (document != null) {
             document.replaceString(
                     psiElementOffset + textRange.getStartOffset(),
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2007 Sergiy Dubovik, Alexey Efimov
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.spellChecker.inspections;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiElement;
+import org.intellij.spellChecker.util.SpellCheckerBundle;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Lazy quick fix replacing misspelled word by suggestion.
+ *
+ * @author Alexey Efimov
+ */
+public class ChangeToSuggestionsQuickFix extends SuggestionsQuickFix {
+    public ChangeToSuggestionsQuickFix(@NotNull PsiElement element, @NotNull TextRange textRange, @NotNull String word) {
+        super(element, textRange, word);
+    }
+
+    @NotNull
+    public String getName() {
+        return SpellCheckerBundle.message("change.to.suggestion");
+    }
+
+    @NotNull
+    public String getName(@NotNull String suggestion) {
+        return SpellCheckerBundle.message("change.to.0", suggestion);
+    }
+
+    @NotNull
+    public String getFamilyName() {
+        return SpellCheckerBundle.message("change.to");
+    }
+
+    protected void applySuggestion(@NotNull Project project, @NotNull PsiElement element, @NotNull String suggestion) {
+        ChangeToQuickFix.replace(element, getTextRange(), suggestion);
+    }
+}
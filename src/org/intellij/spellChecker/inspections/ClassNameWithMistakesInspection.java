@@ -67,13 +67,25 @@ public class ClassNameWithMistakesInspection extends LocalInspectionTool {
     }
 
     @Nullable
-    public ProblemDescriptor[] checkClass(@NotNull PsiClass aClass, @NotNull InspectionManager manager, boolean isOnTheFly) {
+    public ProblemDescriptor[] checkClass(@NotNull final PsiClass aClass, @NotNull final InspectionManager manager, boolean isOnTheFly) {
+        return InspectionStatistics.measure(getShortName(), aClass, new InspectionStatistics.Check() {
+            @Nullable
+            ProblemDescriptor[] run() {
+                return checkClassName(aClass, manager, this);
+            }
+        });
+    }
+
+    @Nullable
+    private static ProblemDescriptor[] checkClassName(@NotNull PsiClass aClass, @NotNull InspectionManager manager,
+                                                      @NotNull InspectionStatistics.Check check) {
         List<ProblemDescriptor> problems = null;
         String className = aClass.getName();
         if (className != null) {
             PsiIdentifier psiName = aClass.getNameIdentifier();
             if (psiName != null) {
                 String[] words = NameUtil.nameToWords(className);
+                check.countWords(words.length);
                 int offsetInParent = psiName.getStartOffsetInParent();
                 int index = 0;
                 for (String word : words) {
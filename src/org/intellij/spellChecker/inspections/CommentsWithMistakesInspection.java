@@ -63,7 +63,6 @@ public class CommentsWithMistakesInspection extends LocalInspectionTool {
     @Nullable
     public ProblemDescriptor[] checkFile(@NotNull PsiFile file, @NotNull InspectionManager manager, boolean isOnTheFly) {
         CommentsSpellCheckerVisitor visitor = new CommentsSpellCheckerVisitor(manager);
-        file.accept(visitor);
-        return visitor.getProblems();
+        return InspectionStatistics.measure(getShortName(), file, visitor);
     }
 }
\ No newline at end of file
@@ -67,12 +67,24 @@ public class FieldNameWithMistakesInspection extends LocalInspectionTool {
     }
 
     @Nullable
-    public ProblemDescriptor[] checkField(@NotNull PsiField field, @NotNull InspectionManager manager, boolean isOnTheFly) {
+    public ProblemDescriptor[] checkField(@NotNull final PsiField field, @NotNull final InspectionManager manager, boolean isOnTheFly) {
+        return InspectionStatistics.measure(getShortName(), field, new InspectionStatistics.Check() {
+            @Nullable
+            ProblemDescriptor[] run() {
+                return checkFieldName(field, manager, this);
+            }
+        });
+    }
+
+    @Nullable
+    private static ProblemDescriptor[] checkFieldName(@NotNull PsiField field, @NotNull InspectionManager manager,
+                                                      @NotNull InspectionStatistics.Check check) {
         List<ProblemDescriptor> problems = null;
         String fieldName = field.getName();
         if (fieldName != null) {
             PsiIdentifier psiName = field.getNameIdentifier();
             String[] words = NameUtil.nameToWords(fieldName);
+            check.countWords(words.length);
             int offsetInParent = psiName.getStartOffsetInParent();
             int index = 0;
             for (String word : words) {
@@ -0,0 +1,327 @@
+/*
+ * Copyright 2007 Sergiy Dubovik, Alexey Efimov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.spellChecker.inspections;
+
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import org.intellij.spellChecker.SpellCheckerManager;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Accounting of wall time, checked words and problems of spelling inspections, in total and per file.
+ * <p/>
+ * Inspections are measured only while {@link org.intellij.spellChecker.SpellCheckerStatistics} are enabled,
+ * otherwise {@link #start(String)} returns <code>null</code> and nothing is recorded. Counters are lock free.
+ * At most {@link #MAX_FILES} files are accounted separately, later files are counted in totals only.
+ *
+ * @author Alexey Efimov
+ */
+public final class InspectionStatistics {
+    public static final int MAX_FILES = 10000;
+    private static final InspectionStatistics INSTANCE = new InspectionStatistics();
+
+    private final ConcurrentMap<String, Counters> inspections = new ConcurrentHashMap<String, Counters>();
+    private final ConcurrentMap<FileKey, Counters> files = new ConcurrentHashMap<FileKey, Counters>();
+
+    private InspectionStatistics() {
+    }
+
+    @NotNull
+    public static InspectionStatistics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Start measurement of inspection.
+     *
+     * @param inspection Short name of inspection
+     * @return Measurement, or <code>null</code> if statistics are disabled
+     */
+    @Nullable
+    public static Measurement start(@NonNls @NotNull String inspection) {
+        if (!SpellCheckerManager.getInstance().getStatistics().isEnabled()) {
+            return null;
+        }
+        return new Measurement(inspection, System.nanoTime());
+    }
+
+    /**
+     * Run check of element and record its measurement, also when check fails.
+     *
+     * @param inspection Short name of inspection
+     * @param element    Inspected element
+     * @param check      Check
+     * @return Problems found, or <code>null</code> if there are no problems
+     */
+    @Nullable
+    static ProblemDescriptor[] measure(@NonNls @NotNull String inspection, @NotNull PsiElement element, @NotNull Check check) {
+        Measurement measurement = start(inspection);
+        if (measurement == null) {
+            return check.run();
+        }
+        ProblemDescriptor[] problems = null;
+        try {
+            problems = check.run();
+            return problems;
+        } finally {
+            measurement.finish(element, check.getWordCount(), problems);
+        }
+    }
+
+    /**
+     * Visit file and record measurement of visit, words are counted by visitor.
+     *
+     * @param inspection Short name of inspection
+     * @param file       Inspected file
+     * @param visitor    Visitor
+     * @return Problems found by visitor, or <code>null</code> if there are no problems
+     */
+    @Nullable
+    static ProblemDescriptor[] measure(@NonNls @NotNull String inspection, @NotNull final PsiFile file,
+                                       @NotNull final AbstractSpellCheckerVisitor visitor) {
+        return measure(inspection, file, new Check() {
+            @Nullable
+            ProblemDescriptor[] run() {
+                file.accept(visitor);
+                return visitor.getProblems();
+            }
+
+            int getWordCount() {
+                return visitor.getWordCount();
+            }
+        });
+    }
+
+    /**
+     * @return Totals of inspections, slowest first
+     */
+    @NotNull
+    public List<Entry> getInspections() {
+        List<Entry> entries = new ArrayList<Entry>(inspections.size());
+        for (Map.Entry<String, Counters> entry : inspections.entrySet()) {
+            entries.add(new Entry(entry.getKey(), null, entry.getValue()));
+        }
+        Collections.sort(entries, Entry.SLOWEST_FIRST);
+        return entries;
+    }
+
+    /**
+     * @param limit Maximal count of entries
+     * @return Inspections of files, slowest first
+     */
+    @NotNull
+    public List<Entry> getSlowestFiles(int limit) {
+        List<Entry> entries = new ArrayList<Entry>(files.size());
+        for (Map.Entry<FileKey, Counters> entry : files.entrySet()) {
+            entries.add(new Entry(entry.getKey().inspection, entry.getKey().path, entry.getValue()));
+        }
+        Collections.sort(entries, Entry.SLOWEST_FIRST);
+        return entries.size() > limit ? new ArrayList<Entry>(entries.subList(0, limit)) : entries;
+    }
+
+    public void reset() {
+        inspections.clear();
+        files.clear();
+    }
+
+    private void record(@NotNull String inspection, @NotNull String path, long nanos, int words, int problems) {
+        counters(inspections, inspection, true).add(nanos, words, problems);
+        Counters file = counters(files, new FileKey(inspection, path), files.size() < MAX_FILES);
+        if (file != null) {
+            file.add(nanos, words, problems);
+        }
+    }
+
+    @Nullable
+    private static <K> Counters counters(@NotNull ConcurrentMap<K, Counters> map, @NotNull K key, boolean create) {
+        Counters counters = map.get(key);
+        if (counters == null && create) {
+            Counters created = new Counters();
+            counters = map.putIfAbsent(key, created);
+            if (counters == null) {
+                counters = created;
+            }
+        }
+        return counters;
+    }
+
+    /**
+     * Check of element measured by {@link InspectionStatistics#measure(String, PsiElement, Check)}.
+     */
+    abstract static class Check {
+        private int wordCount;
+
+        /**
+         * @return Problems found, or <code>null</code> if there are no problems
+         */
+        @Nullable
+        abstract ProblemDescriptor[] run();
+
+        /**
+         * @param count Count of checked words
+         */
+        void countWords(int count) {
+            wordCount += count;
+        }
+
+        int getWordCount() {
+            return wordCount;
+        }
+    }
+
+    /**
+     * Measurement of one inspection call.
+     */
+    public static final class Measurement {
+        private final String inspection;
+        private final long started;
+
+        private Measurement(@NotNull String inspection, long started) {
+            this.inspection = inspection;
+            this.started = started;
+        }
+
+        /**
+         * Finish measurement and record it.
+         *
+         * @param element  Inspected element
+         * @param words    Count of checked words
+         * @param problems Problems found, or <code>null</code> if there are no problems
+         */
+        public void finish(@NotNull PsiElement element, int words, @Nullable ProblemDescriptor[] problems) {
+            long nanos = System.nanoTime() - started;
+            INSTANCE.record(inspection, getPath(element), nanos, words, problems != null ? problems.length : 0);
+        }
+
+        @NotNull
+        private static String getPath(@NotNull PsiElement element) {
+            PsiFile file = element.getContainingFile();
+            if (file == null) {
+                return "";
+            }
+            VirtualFile virtualFile = file.getVirtualFile();
+            return virtualFile != null ? virtualFile.getPresentableUrl() : file.getName();
+        }
+    }
+
+    /**
+     * Accounted time, words and problems of inspection in total or in one file.
+     */
+    public static final class Entry {
+        private static final Comparator<Entry> SLOWEST_FIRST = new Comparator<Entry>() {
+            public int compare(Entry o1, Entry o2) {
+                return o1.nanos < o2.nanos ? 1 : o1.nanos > o2.nanos ? -1 : 0;
+            }
+        };
+
+        private final String inspection;
+        private final String path;
+        private final long calls;
+        private final long nanos;
+        private final long words;
+        private final long problems;
+
+        private Entry(@NotNull String inspection, @Nullable String path, @NotNull Counters counters) {
+            this.inspection = inspection;
+            this.path = path;
+            this.calls = counters.calls.get();
+            this.nanos = counters.nanos.get();
+            this.words = counters.words.get();
+            this.problems = counters.problems.get();
+        }
+
+        @NotNull
+        public String getInspection() {
+            return inspection;
+        }
+
+        /**
+         * @return Path of file, or <code>null</code> for totals
+         */
+        @Nullable
+        public String getPath() {
+            return path;
+        }
+
+        public long getCalls() {
+            return calls;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        public long getWords() {
+            return words;
+        }
+
+        public long getProblems() {
+            return problems;
+        }
+    }
+
+    private static final class Counters {
+        private final AtomicLong calls = new AtomicLong();
+        private final AtomicLong nanos = new AtomicLong();
+        private final AtomicLong words = new AtomicLong();
+        private final AtomicLong problems = new AtomicLong();
+
+        private void add(long nanos, int words, int problems) {
+            calls.incrementAndGet();
+            this.nanos.addAndGet(nanos);
+            this.words.addAndGet(words);
+            this.problems.addAndGet(problems);
+        }
+    }
+
+    private static final class FileKey {
+        private final String inspection;
+        private final String path;
+
+        private FileKey(@NotNull String inspection, @NotNull String path) {
+            this.inspection = inspection;
+            this.path = path;
+        }
+
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof FileKey)) {
+                return false;
+            }
+            FileKey key = (FileKey) o;
+            return inspection.equals(key.inspection) && path.equals(key.path);
+        }
+
+        public int hashCode() {
+            return 31 * inspection.hashCode() + path.hashCode();
+        }
+    }
+}
@@ -41,6 +41,7 @@ public class LocalVariableNameSpellCheckerVisitor extends AbstractSpellCheckerVi
         PsiIdentifier psiName = variable.getNameIdentifier();
         if (psiName != null && variableName != null) {
             String[] words = NameUtil.nameToWords(variableName);
+            countWords(words.length);
             int offsetInParent = psiName.getStartOffsetInParent();
             int index = 0;
             for (String word : words) {
@@ -63,7 +63,6 @@ public class LocalVariableNameWithMistakesInspection extends LocalInspectionTool
     @Nullable
     public ProblemDescriptor[] checkFile(@NotNull PsiFile file, @NotNull InspectionManager manager, boolean isOnTheFly) {
         LocalVariableNameSpellCheckerVisitor visitor = new LocalVariableNameSpellCheckerVisitor(manager);
-        file.accept(visitor);
-        return visitor.getProblems();
+        return InspectionStatistics.measure(getShortName(), file, visitor);
     }
 }
\ No newline at end of file
@@ -67,12 +67,24 @@ public class MethodNameWithMistakesInspection extends LocalInspectionTool {
     }
 
     @Nullable
-    public ProblemDescriptor[] checkMethod(@NotNull PsiMethod method, @NotNull InspectionManager manager, boolean isOnTheFly) {
+    public ProblemDescriptor[] checkMethod(@NotNull final PsiMethod method, @NotNull final InspectionManager manager, boolean isOnTheFly) {
+        return InspectionStatistics.measure(getShortName(), method, new InspectionStatistics.Check() {
+            @Nullable
+            ProblemDescriptor[] run() {
+                return checkMethodName(method, manager, this);
+            }
+        });
+    }
+
+    @Nullable
+    private static ProblemDescriptor[] checkMethodName(@NotNull PsiMethod method, @NotNull InspectionManager manager,
+                                                       @NotNull InspectionStatistics.Check check) {
         List<ProblemDescriptor> problems = null;
         String methodName = method.getName();
         PsiIdentifier psiName = method.getNameIdentifier();
         if (psiName != null) {
             String[] words = NameUtil.nameToWords(methodName);
+            check.countWords(words.length);
             int offsetInParent = psiName.getStartOffsetInParent();
             int index = 0;
             for (String word : words) {
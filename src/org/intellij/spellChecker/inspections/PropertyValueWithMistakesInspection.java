@@ -69,8 +69,7 @@ public class PropertyValueWithMistakesInspection extends LocalInspectionTool {
         Language language = file.getLanguage();
         if (PROPERTIES.equals(language.getID())) {
             AbstractSpellCheckerVisitor visitor = new PropertyValueSpellingVisitor(manager);
-            file.accept(visitor);
-            return visitor.getProblems();
+            return InspectionStatistics.measure(getShortName(), file, visitor);
         }
 
         return null;
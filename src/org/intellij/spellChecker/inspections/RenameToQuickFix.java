@@ -52,7 +52,17 @@ public class RenameToQuickFix implements SpellCheckerQuickFix {
     }
 
     public void applyFix(@NotNull Project project, @NotNull ProblemDescriptor descriptor) {
-        PsiElement psiElement = descriptor.getPsiElement();
+        rename(project, descriptor.getPsiElement(), correctName);
+    }
+
+    /**
+     * Rename element with preview of usages.
+     *
+     * @param project     Project
+     * @param psiElement  Element to rename
+     * @param correctName Correct name
+     */
+    static void rename(@NotNull Project project, @NotNull PsiElement psiElement, @NotNull String correctName) {
         RenameRefactoring rename = RefactoringFactory.getInstance(project).createRename(psiElement, correctName);
         rename.setPreviewUsages(true);
         rename.run();
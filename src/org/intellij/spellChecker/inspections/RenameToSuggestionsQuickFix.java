@@ -0,0 +1,70 @@
+/*
+ * Copyright 2007 Sergiy Dubovik, Alexey Efimov
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.spellChecker.inspections;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiElement;
+import org.intellij.spellChecker.util.SpellCheckerBundle;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Lazy quick fix renaming element with misspelled word in name.
+ *
+ * @author Alexey Efimov
+ */
+public class RenameToSuggestionsQuickFix extends SuggestionsQuickFix {
+    public RenameToSuggestionsQuickFix(@NotNull PsiElement element, @NotNull TextRange textRange, @NotNull String word) {
+        super(element, textRange, word);
+    }
+
+    @NotNull
+    public String getName() {
+        return SpellCheckerBundle.message("rename.to.suggestion");
+    }
+
+    @NotNull
+    public String getName(@NotNull String suggestion) {
+        PsiElement element = getElement();
+        String correctName = element != null ? getCorrectName(element, suggestion) : null;
+        return SpellCheckerBundle.message("rename.to.0", correctName != null ? correctName : suggestion);
+    }
+
+    @NotNull
+    public String getFamilyName() {
+        return SpellCheckerBundle.message("rename.to");
+    }
+
+    protected void applySuggestion(@NotNull Project project, @NotNull PsiElement element, @NotNull String suggestion) {
+        String correctName = getCorrectName(element, suggestion);
+        if (correctName != null) {
+            RenameToQuickFix.rename(project, element, correctName);
+        }
+    }
+
+    @Nullable
+    private String getCorrectName(@NotNull PsiElement element, @NotNull String suggestion) {
+        TextRange textRange = getTextRange();
+        PsiElement child = element.isValid() ? element.findElementAt(textRange.getStartOffset()) : null;
+        if (child != null) {
+            // Construct corrected name
+            TextRange subRange = textRange.shiftRight(-child.getStartOffsetInParent());
+            return subRange.replace(child.getText(), suggestion);
+        }
+        return null;
+    }
+}
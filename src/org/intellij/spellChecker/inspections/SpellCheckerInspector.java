@@ -16,7 +16,6 @@
 package org.intellij.spellChecker.inspections;
 
 import com.intellij.codeInspection.InspectionManager;
-import com.intellij.codeInspection.LocalQuickFix;
 import com.intellij.codeInspection.ProblemDescriptor;
 import com.intellij.codeInspection.ProblemHighlightType;
 import com.intellij.openapi.util.TextRange;
@@ -25,7 +24,6 @@ import org.intellij.spellChecker.SpellCheckerManager;
 import org.intellij.spellChecker.util.SpellCheckerBundle;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -39,22 +37,32 @@ public class SpellCheckerInspector {
     public static List<ProblemDescriptor> inspectWithChangeTo(@NotNull InspectionManager inspectionManager, @NotNull PsiElement element, @NotNull TextRange textRange, @NotNull String word) {
         SpellCheckerManager manager = SpellCheckerManager.getInstance();
         if (manager.hasProblem(word)) {
-            List<String> suggestions = manager.getSuggestions(word);
-            List<LocalQuickFix> fixes = new ArrayList<LocalQuickFix>();
-            for (String suggestion : suggestions) {
-                fixes.add(new ChangeToQuickFix(textRange, suggestion));
-            }
-            fixes.add(new AddToDictionaryQuickFix(word));
-            fixes.add(new AddToIgnoreListQuickFix(word));
-            return Collections.singletonList(inspectionManager.createProblemDescriptor(
-                    element, textRange,
-                    SpellCheckerBundle.message("word.0.is.misspelled", word),
-                    ProblemHighlightType.GENERIC_ERROR_OR_WARNING,
-                    fixes.toArray(new LocalQuickFix[fixes.size()])));
+            return Collections.singletonList(createChangeToProblem(inspectionManager, element, textRange, word));
         }
         return Collections.emptyList();
     }
 
+    /**
+     * Create problem for word already known as misspelled, word is not checked again.
+     *
+     * @param inspectionManager Inspection manager
+     * @param element           Element
+     * @param textRange         Range of word in element
+     * @param word              Misspelled word
+     * @return Problem with change to quick fix
+     */
+    @NotNull
+    public static ProblemDescriptor createChangeToProblem(@NotNull InspectionManager inspectionManager, @NotNull PsiElement element, @NotNull TextRange textRange, @NotNull String word) {
+        // Suggestions are computed only when fix is invoked
+        return inspectionManager.createProblemDescriptor(
+                element, textRange,
+                SpellCheckerBundle.message("word.0.is.misspelled", word),
+                ProblemHighlightType.GENERIC_ERROR_OR_WARNING,
+                new ChangeToSuggestionsQuickFix(element, textRange, word),
+                new AddToDictionaryQuickFix(word),
+                new AddToIgnoreListQuickFix(word));
+    }
+
     @NotNull
     public static List<ProblemDescriptor> inspectWithRenameTo(@NotNull InspectionManager inspectionManager, @NotNull PsiElement element, @NotNull TextRange textRange, @NotNull String word) {
         if (word.length() > 1) {
@@ -62,20 +70,13 @@ public class SpellCheckerInspector {
             if (manager.hasProblem(word)) {
                 PsiElement child = element.findElementAt(textRange.getStartOffset());
                 if (child != null) {
-                    List<String> suggestions = manager.getSuggestions(word);
-                    List<LocalQuickFix> fixes = new ArrayList<LocalQuickFix>();
-                    for (String suggestion : suggestions) {
-                        // Construct corrected method name
-                        TextRange subRange = textRange.shiftRight(-child.getStartOffsetInParent());
-                        fixes.add(new RenameToQuickFix(subRange.replace(child.getText(), suggestion)));
-                    }
-                    fixes.add(new AddToDictionaryQuickFix(word));
-                    fixes.add(new AddToIgnoreListQuickFix(word));
                     return Collections.singletonList(inspectionManager.createProblemDescriptor(
                             element, textRange,
                             SpellCheckerBundle.message("word.0.is.misspelled", word),
                             ProblemHighlightType.GENERIC_ERROR_OR_WARNING,
-                            fixes.toArray(new LocalQuickFix[fixes.size()])));
+                            new RenameToSuggestionsQuickFix(element, textRange, word),
+                            new AddToDictionaryQuickFix(word),
+                            new AddToIgnoreListQuickFix(word)));
                 }
             }
         }
@@ -63,7 +63,6 @@ public class StringWithMistakesInspection extends LocalInspectionTool {
     @Nullable
     public ProblemDescriptor[] checkFile(@NotNull PsiFile file, @NotNull InspectionManager manager, boolean isOnTheFly) {
         StringsSpellCheckerVisitor visitor = new StringsSpellCheckerVisitor(manager);
-        file.accept(visitor);
-        return visitor.getProblems();
+        return InspectionStatistics.measure(getShortName(), file, visitor);
     }
 }
\ No newline at end of file
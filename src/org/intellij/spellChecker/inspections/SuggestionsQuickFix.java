@@ -0,0 +1,223 @@
+/*
+ * Copyright 2007 Sergiy Dubovik, Alexey Efimov
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.spellChecker.inspections;
+
+import com.intellij.codeInsight.hint.HintManager;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.openapi.actionSystem.Anchor;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.command.CommandProcessor;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.editor.EditorFactory;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.popup.JBPopupFactory;
+import com.intellij.openapi.ui.popup.ListPopup;
+import com.intellij.openapi.ui.popup.PopupStep;
+import com.intellij.openapi.ui.popup.util.BaseListPopupStep;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.SmartPointerManager;
+import com.intellij.psi.SmartPsiElementPointer;
+import org.intellij.spellChecker.SpellCheckerManager;
+import org.intellij.spellChecker.util.SpellCheckerBundle;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+
+/**
+ * Quick fix which computes suggestions for misspelled word only when it is invoked. Highlighting pass records
+ * misspelled range, suggestions are shown in popup or expanded by
+ * {@link org.intellij.spellChecker.actions.SpellingPopupActionGroup}.
+ * <p/>
+ * Quick fixes live as long as highlighting of file, so element is held by smart pointer, which neither keeps
+ * element nor file in memory.
+ *
+ * @author Alexey Efimov
+ */
+public abstract class SuggestionsQuickFix implements SpellCheckerQuickFix {
+    private final SmartPsiElementPointer element;
+    private final TextRange textRange;
+    private final String word;
+    private List<String> suggestions;
+
+    protected SuggestionsQuickFix(@NotNull PsiElement element, @NotNull TextRange textRange, @NotNull String word) {
+        this.element = SmartPointerManager.getInstance(element.getProject()).createSmartPsiElementPointer(element);
+        this.textRange = textRange;
+        this.word = word;
+    }
+
+    /**
+     * @return Element with misspelled word, or <code>null</code> if it is no longer valid
+     */
+    @Nullable
+    protected PsiElement getElement() {
+        PsiElement psiElement = element.getElement();
+        return psiElement != null && psiElement.isValid() ? psiElement : null;
+    }
+
+    @NotNull
+    public String getWord() {
+        return word;
+    }
+
+    @NotNull
+    protected TextRange getTextRange() {
+        return textRange;
+    }
+
+    /**
+     * Return suggestions, they are computed on first call.
+     *
+     * @return Suggestions for misspelled word
+     */
+    @NotNull
+    public List<String> getSuggestions() {
+        if (suggestions == null) {
+            suggestions = SpellCheckerManager.getInstance().getSuggestions(word);
+        }
+        return suggestions;
+    }
+
+    @NotNull
+    public Anchor getPopupActionAnchor() {
+        return Anchor.FIRST;
+    }
+
+    /**
+     * Return action name for suggestion.
+     *
+     * @param suggestion Suggestion
+     * @return Action name
+     */
+    @NotNull
+    public abstract String getName(@NotNull String suggestion);
+
+    /**
+     * Apply suggestion to element, called in write action.
+     *
+     * @param project    Project
+     * @param element    Element with misspelled word
+     * @param suggestion Suggestion
+     */
+    protected abstract void applySuggestion(@NotNull Project project, @NotNull PsiElement element, @NotNull String suggestion);
+
+    /**
+     * Apply suggestion in command.
+     *
+     * @param project    Project
+     * @param suggestion Suggestion
+     */
+    public void applySuggestionInCommand(@NotNull Project project, @NotNull String suggestion) {
+        PsiElement psiElement = getElement();
+        if (psiElement != null) {
+            applySuggestionInCommand(project, psiElement, suggestion);
+        }
+    }
+
+    private void applySuggestionInCommand(@NotNull final Project project, @NotNull final PsiElement element,
+                                          @NotNull final String suggestion) {
+        if (element.isValid()) {
+            CommandProcessor.getInstance().executeCommand(project, new Runnable() {
+                public void run() {
+                    ApplicationManager.getApplication().runWriteAction(new Runnable() {
+                        public void run() {
+                            if (element.isValid()) {
+                                applySuggestion(project, element, suggestion);
+                            }
+                        }
+                    });
+                }
+            }, getName(suggestion), null);
+        }
+    }
+
+    /**
+     * Show suggestions in popup. Quick fix is invoked in write action, so suggestions are looked up and shown after
+     * it, and only chosen suggestion is applied in write action.
+     *
+     * @param project    Project
+     * @param descriptor Problem descriptor
+     */
+    public void applyFix(@NotNull final Project project, @NotNull ProblemDescriptor descriptor) {
+        final PsiElement psiElement = descriptor.getPsiElement();
+        if (psiElement == null || !psiElement.isValid()) {
+            return;
+        }
+        ApplicationManager.getApplication().invokeLater(new Runnable() {
+            public void run() {
+                if (!project.isDisposed() && psiElement.isValid()) {
+                    showSuggestions(project, psiElement);
+                }
+            }
+        });
+    }
+
+    private void showSuggestions(@NotNull final Project project, @NotNull final PsiElement psiElement) {
+        Editor editor = findEditor(project, psiElement);
+        List<String> list = getSuggestions();
+        if (list.isEmpty()) {
+            String message = SpellCheckerBundle.message("no.suggestions.for.0", word);
+            if (editor != null) {
+                HintManager.getInstance().showErrorHint(editor, message);
+            } else {
+                JBPopupFactory.getInstance().createMessage(message).showCenteredInCurrentWindow(project);
+            }
+        } else {
+            ListPopup popup = JBPopupFactory.getInstance().createListPopup(new BaseListPopupStep<String>(getFamilyName(), list) {
+                public PopupStep onChosen(final String selectedValue, boolean finalChoice) {
+                    ApplicationManager.getApplication().invokeLater(new Runnable() {
+                        public void run() {
+                            applySuggestionInCommand(project, psiElement, selectedValue);
+                        }
+                    });
+                    return FINAL_CHOICE;
+                }
+            });
+            if (editor != null) {
+                popup.showInBestPositionFor(editor);
+            } else {
+                popup.showCenteredInCurrentWindow(project);
+            }
+        }
+    }
+
+    /**
+     * Find editor of element document, selected editor is preferred.
+     *
+     * @param project Project
+     * @param element Element
+     * @return Editor, or <code>null</code> if document of element is not opened in editor
+     */
+    @Nullable
+    private static Editor findEditor(@NotNull Project project, @NotNull PsiElement element) {
+        PsiFile file = element.getContainingFile();
+        Document document = file != null ? PsiDocumentManager.getInstance(project).getDocument(file) : null;
+        if (document == null) {
+            return null;
+        }
+        Editor selected = FileEditorManager.getInstance(project).getSelectedTextEditor();
+        if (selected != null && selected.getDocument() == document) {
+            return selected;
+        }
+        Editor[] editors = EditorFactory.getInstance().getEditors(document, project);
+        return editors.length > 0 ? editors[0] : null;
+    }
+}
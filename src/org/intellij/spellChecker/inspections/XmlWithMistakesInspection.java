@@ -63,7 +63,6 @@ public class XmlWithMistakesInspection extends LocalInspectionTool {
     @Nullable
     public ProblemDescriptor[] checkFile(@NotNull PsiFile file, @NotNull InspectionManager manager, boolean isOnTheFly) {
         AbstractSpellCheckerVisitor visitor = new XmlSpellingVisitor(manager);
-        file.accept(visitor);
-        return visitor.getProblems();
+        return InspectionStatistics.measure(getShortName(), file, visitor);
     }
 }
@@ -88,17 +88,10 @@ public final class SpellCheckerConfigurable implements Configurable {
 
     public void apply() throws ConfigurationException {
         if (options != null) {
-            replaceAll(configuration.USER_DICTIONARY_WORDS, options.getUserDictionaryWords());
-            replaceAll(configuration.IGNORED_WORDS, options.getIgnoredWords());
-            manager.reloadAndRestartInspections();
+            manager.applyChanges(options.getUserDictionaryWords(), options.getIgnoredWords());
         }
     }
 
-    private static void replaceAll(Set<String> words, Set<String> newWords) {
-        words.clear();
-        words.addAll(newWords);
-    }
-
     public void reset() {
         if (options != null) {
             options.setUserDictionaryWords(configuration.USER_DICTIONARY_WORDS);
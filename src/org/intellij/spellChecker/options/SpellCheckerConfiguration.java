@@ -15,16 +15,24 @@
  */
 package org.intellij.spellChecker.options;
 
+import com.intellij.openapi.application.PathManager;
 import com.intellij.openapi.components.PersistentStateComponent;
 import com.intellij.openapi.components.State;
 import com.intellij.openapi.components.Storage;
-import com.intellij.util.xmlb.XmlSerializerUtil;
+import org.jdom.Element;
+import org.jetbrains.annotations.NonNls;
 
-import java.util.HashSet;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 /**
  * Spelling configuration.
+ * <p/>
+ * User dictionary and ignored words are kept in {@link WordLog} files of config directory, so adding a word
+ * appends one line instead of rewriting whole XML state. Words from XML state of previous versions are moved into
+ * logs on load. Words in logs are lower cased.
  *
  * @author Alexey Efimov
  */
@@ -36,15 +44,71 @@ import java.util.Set;
                 file = "$APP_CONFIG$/spellchecker.xml"
         )}
 )
-public final class SpellCheckerConfiguration implements PersistentStateComponent<SpellCheckerConfiguration> {
-    public Set<String> USER_DICTIONARY_WORDS = new HashSet<String>();
-    public Set<String> IGNORED_WORDS = new HashSet<String>();
+public final class SpellCheckerConfiguration implements PersistentStateComponent<Element> {
+    @NonNls
+    private static final String DIRECTORY = "spellchecker";
+    @NonNls
+    private static final String USER_DICTIONARY_FILE = "dictionary.log";
+    @NonNls
+    private static final String IGNORED_WORDS_FILE = "ignored.log";
+    @NonNls
+    private static final String STATE_ELEMENT = "state";
+    @NonNls
+    private static final String OPTION_ELEMENT = "option";
+    @NonNls
+    private static final String SET_ELEMENT = "set";
+    @NonNls
+    private static final String NAME_ATTRIBUTE = "name";
+    @NonNls
+    private static final String VALUE_ATTRIBUTE = "value";
+    @NonNls
+    private static final String USER_DICTIONARY_WORDS_OPTION = "USER_DICTIONARY_WORDS";
+    @NonNls
+    private static final String IGNORED_WORDS_OPTION = "IGNORED_WORDS";
 
-    public SpellCheckerConfiguration getState() {
-        return this;
+    public final Set<String> USER_DICTIONARY_WORDS = new WordLog(new File(getDirectory(), USER_DICTIONARY_FILE));
+    public final Set<String> IGNORED_WORDS = new WordLog(new File(getDirectory(), IGNORED_WORDS_FILE));
+
+    private static File getDirectory() {
+        return new File(PathManager.getConfigPath(), DIRECTORY);
+    }
+
+    /**
+     * @return Empty state, words are saved by logs
+     */
+    public Element getState() {
+        return new Element(STATE_ELEMENT);
+    }
+
+    /**
+     * Move words of XML state saved by previous versions into logs, lower cased as words added later. Migrated words
+     * are dropped from XML on next save, because {@link #getState()} never contains words.
+     *
+     * @param state XML state
+     */
+    public void loadState(Element state) {
+        for (Object child : state.getChildren(OPTION_ELEMENT)) {
+            Element option = (Element) child;
+            String name = option.getAttributeValue(NAME_ATTRIBUTE);
+            if (USER_DICTIONARY_WORDS_OPTION.equals(name)) {
+                USER_DICTIONARY_WORDS.addAll(getValues(option));
+            } else if (IGNORED_WORDS_OPTION.equals(name)) {
+                IGNORED_WORDS.addAll(getValues(option));
+            }
+        }
     }
 
-    public void loadState(SpellCheckerConfiguration state) {
-        XmlSerializerUtil.copyBean(state, this);
+    private static List<String> getValues(Element option) {
+        List<String> values = new ArrayList<String>();
+        Element set = option.getChild(SET_ELEMENT);
+        if (set != null) {
+            for (Object child : set.getChildren(OPTION_ELEMENT)) {
+                String value = ((Element) child).getAttributeValue(VALUE_ATTRIBUTE);
+                if (value != null && value.length() > 0) {
+                    values.add(value.toLowerCase());
+                }
+            }
+        }
+        return values;
     }
 }
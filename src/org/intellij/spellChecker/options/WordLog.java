@@ -0,0 +1,313 @@
+/*
+ * Copyright 2007 Sergiy Dubovik, Alexey Efimov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.spellChecker.options;
+
+import com.intellij.openapi.diagnostic.Logger;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Set of words persisted in append only log.
+ * <p/>
+ * Every change appends <code>+word</code> or <code>-word</code> line to log, so saving one word never rewrites
+ * whole file. Log is read on first access to set. When log holds much more lines than set has words, it is
+ * compacted: live words are written to temporary file which then replaces log. Old log is kept as backup until
+ * temporary file is renamed, and log is recovered from backup or complete temporary file if compaction was
+ * interrupted.
+ * <p/>
+ * Set is thread safe. Failure to write log is logged and does not affect words in memory.
+ *
+ * @author Alexey Efimov
+ */
+public final class WordLog extends AbstractSet<String> {
+    private static final Logger LOGGER = Logger.getInstance("#SpellCheckerWordLog");
+    @NonNls
+    private static final String ENCODING = "UTF-8";
+    @NonNls
+    private static final String TEMP_SUFFIX = ".tmp";
+    @NonNls
+    private static final String BACKUP_SUFFIX = ".bak";
+    private static final char ADDED = '+';
+    private static final char REMOVED = '-';
+    private static final int COMPACTION_THRESHOLD = 1024;
+
+    private final File file;
+    private Set<String> words;
+    private int lines;
+
+    public WordLog(@NotNull File file) {
+        this.file = file;
+    }
+
+    @NotNull
+    public File getFile() {
+        return file;
+    }
+
+    public synchronized int size() {
+        return load().size();
+    }
+
+    public synchronized boolean contains(Object o) {
+        return load().contains(o);
+    }
+
+    public synchronized boolean add(String word) {
+        return addAll(Collections.singleton(word));
+    }
+
+    public synchronized boolean remove(Object o) {
+        return o instanceof String && removeAll(Collections.singleton(o));
+    }
+
+    /**
+     * Add words, all new words are appended to log at once.
+     *
+     * @param c Words
+     * @return <code>true</code> if any word was not in set
+     */
+    public synchronized boolean addAll(Collection<? extends String> c) {
+        List<String> added = new ArrayList<String>();
+        for (String word : c) {
+            checkWord(word);
+            if (load().add(word)) {
+                added.add(word);
+            }
+        }
+        append(ADDED, added);
+        return !added.isEmpty();
+    }
+
+    /**
+     * Remove words, all removed words are appended to log at once.
+     *
+     * @param c Words
+     * @return <code>true</code> if any word was in set
+     */
+    public synchronized boolean removeAll(Collection<?> c) {
+        List<String> removed = new ArrayList<String>();
+        for (Object o : c) {
+            if (load().remove(o)) {
+                removed.add((String) o);
+            }
+        }
+        append(REMOVED, removed);
+        return !removed.isEmpty();
+    }
+
+    public synchronized boolean retainAll(Collection<?> c) {
+        List<String> removed = new ArrayList<String>();
+        for (String word : load()) {
+            if (!c.contains(word)) {
+                removed.add(word);
+            }
+        }
+        return removeAll(removed);
+    }
+
+    public synchronized void clear() {
+        load().clear();
+        compact();
+    }
+
+    /**
+     * Iterate over copy of words, so set may be changed during iteration.
+     *
+     * @return Iterator
+     */
+    @NotNull
+    public synchronized Iterator<String> iterator() {
+        final Iterator<String> iterator = new ArrayList<String>(load()).iterator();
+        return new Iterator<String>() {
+            private String current;
+
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            public String next() {
+                current = iterator.next();
+                return current;
+            }
+
+            public void remove() {
+                if (current == null) {
+                    throw new IllegalStateException();
+                }
+                WordLog.this.remove(current);
+                current = null;
+            }
+        };
+    }
+
+    private static void checkWord(String word) {
+        if (word.indexOf('\n') >= 0 || word.indexOf('\r') >= 0) {
+            throw new IllegalArgumentException("Word can't contain line breaks: " + word);
+        }
+    }
+
+    @NotNull
+    private Set<String> load() {
+        if (words == null) {
+            words = new HashSet<String>();
+            lines = 0;
+            recover();
+            if (file.isFile()) {
+                try {
+                    BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), ENCODING));
+                    try {
+                        String line;
+                        while ((line = reader.readLine()) != null) {
+                            if (line.length() > 1) {
+                                if (line.charAt(0) == ADDED) {
+                                    words.add(line.substring(1));
+                                } else if (line.charAt(0) == REMOVED) {
+                                    words.remove(line.substring(1));
+                                }
+                                lines++;
+                            }
+                        }
+                    } finally {
+                        reader.close();
+                    }
+                } catch (IOException e) {
+                    LOGGER.warn("Can't read " + file, e);
+                }
+                if (needsCompaction()) {
+                    compact();
+                }
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Restore log if compaction was interrupted after log was moved away. Backup is the old log, temporary file is
+     * complete when log is missing, as it is closed before log is moved.
+     */
+    private void recover() {
+        if (file.exists()) {
+            return;
+        }
+        File[] candidates = {getBackupFile(), getTempFile()};
+        for (File candidate : candidates) {
+            if (candidate.isFile()) {
+                if (candidate.renameTo(file)) {
+                    LOGGER.info("Recovered " + file + " from " + candidate);
+                } else {
+                    LOGGER.warn("Can't recover " + file + " from " + candidate);
+                }
+                return;
+            }
+        }
+    }
+
+    @NotNull
+    private File getTempFile() {
+        return new File(file.getPath() + TEMP_SUFFIX);
+    }
+
+    @NotNull
+    private File getBackupFile() {
+        return new File(file.getPath() + BACKUP_SUFFIX);
+    }
+
+    private boolean needsCompaction() {
+        return lines > words.size() * 2 + COMPACTION_THRESHOLD;
+    }
+
+    private void append(char operation, @NotNull List<String> changed) {
+        if (changed.isEmpty()) {
+            return;
+        }
+        try {
+            Writer writer = openWriter(file, true);
+            try {
+                write(writer, operation, changed);
+            } finally {
+                writer.close();
+            }
+            lines += changed.size();
+        } catch (IOException e) {
+            LOGGER.warn("Can't write " + file, e);
+        }
+        if (needsCompaction()) {
+            compact();
+        }
+    }
+
+    /**
+     * Replace log by live words. Log is moved to backup before temporary file takes its place, so one complete copy
+     * of words exists at every moment, and temporary file is deleted only while log is intact.
+     */
+    private void compact() {
+        try {
+            File temp = getTempFile();
+            File backup = getBackupFile();
+            Writer writer = openWriter(temp, false);
+            try {
+                List<String> sorted = new ArrayList<String>(words);
+                Collections.sort(sorted);
+                write(writer, ADDED, sorted);
+            } finally {
+                writer.close();
+            }
+            if (file.exists()) {
+                if (backup.exists() && !backup.delete()) {
+                    temp.delete();
+                    throw new IOException("Can't delete " + backup);
+                }
+                if (!file.renameTo(backup)) {
+                    temp.delete();
+                    throw new IOException("Can't move " + file + " to " + backup);
+                }
+            }
+            if (!temp.renameTo(file)) {
+                // Temporary file is kept unless old log is back
+                if (backup.exists() && backup.renameTo(file)) {
+                    temp.delete();
+                }
+                throw new IOException("Can't replace " + file);
+            }
+            if (backup.exists() && !backup.delete()) {
+                LOGGER.warn("Can't delete " + backup);
+            }
+            lines = words.size();
+        } catch (IOException e) {
+            LOGGER.warn("Can't compact " + file, e);
+        }
+    }
+
+    @NotNull
+    private static Writer openWriter(@NotNull File file, boolean append) throws IOException {
+        File directory = file.getParentFile();
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Can't create directory " + directory);
+        }
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, append), ENCODING));
+    }
+
+    private static void write(@NotNull Writer writer, char operation, @NotNull Collection<String> words) throws IOException {
+        for (String word : words) {
+            writer.write(operation);
+            writer.write(word);
+            writer.write('\n');
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2007 Sergiy Dubovik, Alexey Efimov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.spellChecker.util;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Size bounded thread safe cache.
+ * <p/>
+ * Entries are spread over segments, every segment is locked separately and evicts least recently used entry
+ * when it is full. Cache is invalidated by increment of generation, entries of previous generations are never
+ * returned. Value computed before invalidation must be put with generation taken before computation, see
+ * {@link #getGeneration()}, so it is dropped instead of being served as fresh.
+ *
+ * @author Alexey Efimov
+ */
+public final class BoundedCache<K, V> {
+    private static final int SEGMENTS = 16;
+
+    private final Segment<K, V>[] segments;
+    private final AtomicInteger generation = new AtomicInteger();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @SuppressWarnings({"unchecked"})
+    public BoundedCache(int capacity) {
+        segments = (Segment<K, V>[]) new Segment<?, ?>[SEGMENTS];
+        int segmentCapacity = Math.max(1, (capacity + SEGMENTS - 1) / SEGMENTS);
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment<K, V>(segmentCapacity, evictions);
+        }
+    }
+
+    /**
+     * @return Current generation
+     */
+    public int getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Return cached value.
+     *
+     * @param key Key
+     * @return Value, or <code>null</code> if value is not cached or was cached before last invalidation
+     */
+    @Nullable
+    public V get(@NotNull K key) {
+        Value<V> cached = segmentFor(key).get(key);
+        if (cached != null && cached.generation == generation.get()) {
+            hits.incrementAndGet();
+            return cached.value;
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Put value into cache.
+     *
+     * @param key        Key
+     * @param value      Value
+     * @param generation Generation taken before value was computed
+     */
+    public void put(@NotNull K key, @NotNull V value, int generation) {
+        if (generation == this.generation.get()) {
+            segmentFor(key).put(key, new Value<V>(value, generation));
+        }
+    }
+
+    /**
+     * Invalidate all cached values. Values computed concurrently with invalidation are dropped on put.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        for (Segment<K, V> segment : segments) {
+            segment.clear();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    public double getHitRate() {
+        long hitCount = hits.get();
+        long requestCount = hitCount + misses.get();
+        return requestCount > 0 ? (double) hitCount / requestCount : 0.0;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public String toString() {
+        return "size=" + size() + ", hits=" + hits.get() + ", misses=" + misses.get() + ", evictions=" + evictions.get();
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return segments[(hash ^ (hash >>> 8)) & (SEGMENTS - 1)];
+    }
+
+    private static final class Value<V> {
+        private final V value;
+        private final int generation;
+
+        private Value(V value, int generation) {
+            this.value = value;
+            this.generation = generation;
+        }
+    }
+
+    private static final class Segment<K, V> extends LinkedHashMap<K, Value<V>> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+        private final AtomicLong evictions;
+
+        private Segment(int capacity, AtomicLong evictions) {
+            super(capacity * 4 / 3 + 1, 0.75f, true);
+            this.capacity = capacity;
+            this.evictions = evictions;
+        }
+
+        public synchronized Value<V> get(Object key) {
+            return super.get(key);
+        }
+
+        public synchronized Value<V> put(K key, Value<V> value) {
+            return super.put(key, value);
+        }
+
+        public synchronized void clear() {
+            super.clear();
+        }
+
+        public synchronized int size() {
+            return super.size();
+        }
+
+        protected boolean removeEldestEntry(Map.Entry<K, Value<V>> eldest) {
+            if (size() > capacity) {
+                evictions.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    }
+}
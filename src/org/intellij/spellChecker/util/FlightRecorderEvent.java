@@ -0,0 +1,192 @@
+/*
+ * Copyright 2007 Sergiy Dubovik, Alexey Efimov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.spellChecker.util;
+
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Type of JDK Flight Recorder event, defined through reflection so plugin runs on JDKs without Flight Recorder.
+ * <p/>
+ * Event type is created by <code>jdk.jfr.EventFactory</code> with name, label, category and threshold. Events are
+ * begun only while some recording enables this type, otherwise {@link #begin()} returns <code>null</code>, so
+ * disabled events cost one check and nothing is allocated. If Flight Recorder is not available, all events are
+ * disabled. Event records duration from {@link #begin()} to {@link Event#shouldCommit()}, and is committed only
+ * if duration exceeds threshold of recording:
+ * <pre>
+ * FlightRecorderEvent.Event event = TYPE.begin();
+ * ...
+ * if (event != null &amp;&amp; event.shouldCommit()) {
+ *     event.commit(word, candidates.size());
+ * }
+ * </pre>
+ *
+ * @author Alexey Efimov
+ */
+public final class FlightRecorderEvent {
+    @NonNls
+    private static final String CATEGORY = "Spell Checker";
+
+    private final Object factory;
+    private final Object type;
+
+    private FlightRecorderEvent(@Nullable Object factory, @Nullable Object type) {
+        this.factory = factory;
+        this.type = type;
+    }
+
+    /**
+     * Define event type, field values are passed to {@link Event#commit(Object[])} in order of names.
+     *
+     * @param name       Name of event type
+     * @param label      Human readable label
+     * @param threshold  Default threshold, e.g. <code>"10 ms"</code>
+     * @param fieldNames Names of fields
+     * @param fieldTypes Types of fields, primitives or {@link String}
+     * @return Event type, disabled if Flight Recorder is not available
+     */
+    @NotNull
+    public static FlightRecorderEvent define(@NonNls @NotNull String name, @NotNull String label,
+                                             @NonNls @NotNull String threshold, @NonNls @NotNull String[] fieldNames,
+                                             @NotNull Class<?>[] fieldTypes) {
+        try {
+            Class<?> annotationClass = Class.forName("jdk.jfr.AnnotationElement");
+            Class<?> descriptorClass = Class.forName("jdk.jfr.ValueDescriptor");
+            Class<?> factoryClass = Class.forName("jdk.jfr.EventFactory");
+            Constructor<?> annotation = annotationClass.getConstructor(Class.class, Object.class);
+            List<Object> annotations = new ArrayList<Object>();
+            annotations.add(annotation.newInstance(Class.forName("jdk.jfr.Name"), name));
+            annotations.add(annotation.newInstance(Class.forName("jdk.jfr.Label"), label));
+            annotations.add(annotation.newInstance(Class.forName("jdk.jfr.Category"), new String[]{CATEGORY}));
+            annotations.add(annotation.newInstance(Class.forName("jdk.jfr.Threshold"), threshold));
+            Constructor<?> descriptor = descriptorClass.getConstructor(Class.class, String.class);
+            List<Object> fields = new ArrayList<Object>();
+            for (int i = 0; i < fieldNames.length; i++) {
+                fields.add(descriptor.newInstance(fieldTypes[i], fieldNames[i]));
+            }
+            Object factory = factoryClass.getMethod("create", List.class, List.class).invoke(null, annotations, fields);
+            Object type = factoryClass.getMethod("getEventType").invoke(factory);
+            Reflection.resolve();
+            return new FlightRecorderEvent(factory, type);
+        } catch (Throwable e) {
+            // No Flight Recorder in this JDK
+            return new FlightRecorderEvent(null, null);
+        }
+    }
+
+    /**
+     * Begin event.
+     *
+     * @return Event, or <code>null</code> if no recording enables this event type
+     */
+    @Nullable
+    public Event begin() {
+        if (type == null) {
+            return null;
+        }
+        try {
+            if (!(Boolean) Reflection.IS_ENABLED.invoke(type)) {
+                return null;
+            }
+            Object event = Reflection.NEW_EVENT.invoke(factory);
+            Reflection.BEGIN.invoke(event);
+            return new Event(event);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Event in progress.
+     */
+    public static final class Event {
+        private final Object event;
+
+        private Event(@NotNull Object event) {
+            this.event = event;
+        }
+
+        /**
+         * End event.
+         *
+         * @return <code>true</code> if event exceeds threshold and should be committed
+         */
+        public boolean shouldCommit() {
+            try {
+                Reflection.END.invoke(event);
+                return (Boolean) Reflection.SHOULD_COMMIT.invoke(event);
+            } catch (Exception e) {
+                return false;
+            }
+        }
+
+        /**
+         * Set fields and commit event.
+         *
+         * @param values Values of fields in order of definition
+         */
+        public void commit(@NotNull Object... values) {
+            try {
+                for (int i = 0; i < values.length; i++) {
+                    Reflection.SET.invoke(event, i, values[i]);
+                }
+                Reflection.COMMIT.invoke(event);
+            } catch (Exception e) {
+                // Event is lost
+            }
+        }
+    }
+
+    /**
+     * Methods of Flight Recorder API, resolved only when some event type is defined.
+     */
+    private static final class Reflection {
+        private static final Method IS_ENABLED;
+        private static final Method NEW_EVENT;
+        private static final Method BEGIN;
+        private static final Method END;
+        private static final Method SHOULD_COMMIT;
+        private static final Method SET;
+        private static final Method COMMIT;
+
+        static {
+            try {
+                Class<?> eventClass = Class.forName("jdk.jfr.Event");
+                IS_ENABLED = Class.forName("jdk.jfr.EventType").getMethod("isEnabled");
+                NEW_EVENT = Class.forName("jdk.jfr.EventFactory").getMethod("newEvent");
+                BEGIN = eventClass.getMethod("begin");
+                END = eventClass.getMethod("end");
+                SHOULD_COMMIT = eventClass.getMethod("shouldCommit");
+                SET = eventClass.getMethod("set", int.class, Object.class);
+                COMMIT = eventClass.getMethod("commit");
+            } catch (Exception e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        /**
+         * Resolve methods, fails if Flight Recorder API differs from expected.
+         */
+        private static void resolve() {
+        }
+    }
+}
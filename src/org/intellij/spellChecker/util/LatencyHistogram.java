@@ -0,0 +1,132 @@
+/*
+ * Copyright 2007 Sergiy Dubovik, Alexey Efimov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.spellChecker.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock free histogram of latencies.
+ * <p/>
+ * Latencies are counted in buckets of powers of two nanoseconds, so recording is one increment of bucket plus
+ * updates of total and maximum, and percentiles are precise within factor of two. Reset is not atomic, latencies
+ * recorded concurrently with reset may be partially kept.
+ *
+ * @author Alexey Efimov
+ */
+public final class LatencyHistogram implements LatencyHistogramMBean {
+    private static final int BUCKETS = 64;
+    private static final double NANOS_PER_MICRO = 1000.0;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Record latency.
+     *
+     * @param nanos Latency in nanoseconds, negative latencies are recorded as zero
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        // Bucket i counts latencies from 2^i to 2^(i+1)-1, zero is counted in first bucket
+        buckets.incrementAndGet(nanos > 0 ? 63 - Long.numberOfLeadingZeros(nanos) : 0);
+        count.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        long max;
+        while (nanos > (max = maxNanos.get()) && !maxNanos.compareAndSet(max, nanos)) {
+            // Retry until maximum is not less than latency
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getTotalNanos() {
+        return totalNanos.get();
+    }
+
+    public double getMeanMicros() {
+        long n = count.get();
+        return n > 0 ? totalNanos.get() / NANOS_PER_MICRO / n : 0.0;
+    }
+
+    public double getMaxMicros() {
+        return maxNanos.get() / NANOS_PER_MICRO;
+    }
+
+    public double getMedianMicros() {
+        return getPercentileMicros(50);
+    }
+
+    public double getPercentile90Micros() {
+        return getPercentileMicros(90);
+    }
+
+    public double getPercentile99Micros() {
+        return getPercentileMicros(99);
+    }
+
+    /**
+     * Return upper bound of percentile, bound is never greater than maximal latency.
+     *
+     * @param percentile Percentile from 0 to 100
+     * @return Latency in microseconds
+     */
+    public double getPercentileMicros(double percentile) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0.0;
+        }
+        long rank = (long) Math.ceil(total * Math.min(100.0, Math.max(0.0, percentile)) / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank && counts[i] > 0) {
+                long bound = i < BUCKETS - 1 ? (1L << (i + 1)) - 1 : Long.MAX_VALUE;
+                return Math.min(bound, maxNanos.get()) / NANOS_PER_MICRO;
+            }
+        }
+        return getMaxMicros();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        totalNanos.set(0);
+        maxNanos.set(0);
+    }
+
+    public String toString() {
+        return "count=" + getCount() + ", mean=" + format(getMeanMicros()) + "us, median=" + format(getMedianMicros()) +
+                "us, p99=" + format(getPercentile99Micros()) + "us, max=" + format(getMaxMicros()) + "us";
+    }
+
+    private static String format(double micros) {
+        return String.valueOf(Math.round(micros * 10) / 10.0);
+    }
+}
@@ -39,21 +39,70 @@ public final class Strings {
     }
 
     public static boolean isUpperCase(String word) {
+        return isUpperCase(word, 0, word.length());
+    }
+
+    private static boolean isUpperCase(CharSequence text, int start, int end) {
         boolean upperCase = true;
-        for (int i = 0; i < word.length() && upperCase; i++) {
-            upperCase = Character.isUpperCase(word.charAt(i));
+        for (int i = start; i < end && upperCase; i++) {
+            upperCase = Character.isUpperCase(text.charAt(i));
         }
 
         return upperCase;
     }
 
     public static boolean isMixedCase(String word) {
-        if (word.length() < 2)
+        return isMixedCase(word, 0, word.length());
+    }
+
+    /**
+     * Check that word has upper case characters after first one and is not entirely upper cased.
+     * Word is not copied.
+     *
+     * @param text  Text
+     * @param start Start offset of word
+     * @param end   End offset of word
+     * @return <code>true</code> if word is mixed cased
+     */
+    public static boolean isMixedCase(CharSequence text, int start, int end) {
+        if (end - start < 2)
             return false;
 
-        String tail = word.substring(1);
-        String lowerCase = tail.toLowerCase();
-        return !tail.equals(lowerCase) && !isUpperCase(word);
+        boolean lowCase = true;
+        for (int i = start + 1; i < end && lowCase; i++) {
+            char c = text.charAt(i);
+            lowCase = Character.toLowerCase(c) == c;
+        }
+
+        return !lowCase && !isUpperCase(text, start, end);
+    }
+
+    /**
+     * Check that text contains lower cased word in any case, so word is also found inside of camel cased
+     * identifiers. Text is not copied.
+     *
+     * @param text      Text
+     * @param lowerCase Lower cased word
+     * @return <code>true</code> if word is found
+     */
+    public static boolean containsIgnoreCase(CharSequence text, String lowerCase) {
+        int length = lowerCase.length();
+        if (length == 0)
+            return true;
+
+        char first = lowerCase.charAt(0);
+        for (int i = 0, last = text.length() - length; i <= last; i++) {
+            if (Character.toLowerCase(text.charAt(i)) == first) {
+                int j = 1;
+                while (j < length && Character.toLowerCase(text.charAt(i + j)) == lowerCase.charAt(j)) {
+                    j++;
+                }
+                if (j == length)
+                    return true;
+            }
+        }
+
+        return false;
     }
 
     public static String capitalize(String word) {
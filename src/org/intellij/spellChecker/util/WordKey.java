@@ -0,0 +1,82 @@
+/*
+ * Copyright 2007 Sergiy Dubovik, Alexey Efimov
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.spellChecker.util;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Cache key for word from text range. Key created by {@link #of(CharSequence, int, int)} is a view of text and
+ * is used for look up only, key to store is created by {@link #copy()}.
+ *
+ * @author Alexey Efimov
+ */
+public final class WordKey {
+    private final CharSequence text;
+    private final int start;
+    private final int end;
+    private final int hash;
+
+    private WordKey(@NotNull CharSequence text, int start, int end, int hash) {
+        this.text = text;
+        this.start = start;
+        this.end = end;
+        this.hash = hash;
+    }
+
+    @NotNull
+    public static WordKey of(@NotNull CharSequence text, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + text.charAt(i);
+        }
+        return new WordKey(text, start, end, hash);
+    }
+
+    /**
+     * @return Key which does not refer to text
+     */
+    @NotNull
+    public WordKey copy() {
+        return new WordKey(toString(), 0, end - start, hash);
+    }
+
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof WordKey)) {
+            return false;
+        }
+        WordKey key = (WordKey) o;
+        if (hash != key.hash || end - start != key.end - key.start) {
+            return false;
+        }
+        for (int i = 0; i < end - start; i++) {
+            if (text.charAt(start + i) != key.text.charAt(key.start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int hashCode() {
+        return hash;
+    }
+
+    public String toString() {
+        return text.subSequence(start, end).toString();
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2007 Sergiy Dubovik, Alexey Efimov
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.spellChecker.util;
+
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Single pass text splitter. Text is split to whitespace separated tokens, tokens with URLs, e-mails, dotted
+ * and underscored names are skipped, other tokens are split to words of letters with optional apostrophe.
+ * Words are reported by offsets, no strings are created.
+ * <p/>
+ * Splitter gives the same words as regular expressions <code>\S+</code> for tokens,
+ * <code>(https?|ftp|mailto)\:\/\/</code> and <code>(\.[^\.]+)|([@_]+)</code> for skipped tokens and
+ * <code>\b\p{L}+'?\p{L}*\b</code> for words, including their word boundary rules.
+ *
+ * @author Alexey Efimov
+ */
+public final class WordSplitter {
+    @NonNls
+    private static final String[] URL_PREFIXES = {"http", "https", "ftp", "mailto"};
+
+    private WordSplitter() {
+    }
+
+    /**
+     * Word consumer.
+     */
+    public interface WordProcessor {
+        /**
+         * Process word.
+         *
+         * @param text  Text
+         * @param start Start offset of word in text
+         * @param end   End offset of word in text
+         */
+        void processWord(@NotNull CharSequence text, int start, int end);
+    }
+
+    public static void split(@NotNull CharSequence text, @NotNull WordProcessor processor) {
+        split(text, 0, text.length(), processor);
+    }
+
+    /**
+     * Split text range to words.
+     *
+     * @param text      Text
+     * @param start     Start offset
+     * @param end       End offset
+     * @param processor Consumer of words longer than one character
+     */
+    public static void split(@NotNull CharSequence text, int start, int end, @NotNull WordProcessor processor) {
+        int i = start;
+        while (i < end) {
+            while (i < end && isSpace(text.charAt(i))) {
+                i++;
+            }
+            int tokenStart = i;
+            while (i < end && !isSpace(text.charAt(i))) {
+                i++;
+            }
+            if (i - tokenStart > 1 && !isSkipped(text, tokenStart, i)) {
+                splitToken(text, tokenStart, i, processor);
+            }
+        }
+    }
+
+    /**
+     * Whitespace as defined by <code>\s</code>.
+     */
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static boolean isSkipped(@NotNull CharSequence text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == '@' || c == '_') {
+                return true;
+            }
+            // Dot followed by other character, trailing dots are allowed
+            if (c == '.' && i + 1 < end && text.charAt(i + 1) != '.') {
+                return true;
+            }
+            if (c == ':' && isUrl(text, start, i, end)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isUrl(@NotNull CharSequence text, int start, int colon, int end) {
+        if (colon + 2 < end && text.charAt(colon + 1) == '/' && text.charAt(colon + 2) == '/') {
+            for (String prefix : URL_PREFIXES) {
+                if (regionMatches(text, colon - prefix.length(), start, prefix)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean regionMatches(@NotNull CharSequence text, int offset, int start, @NotNull String prefix) {
+        if (offset < start) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (text.charAt(offset + i) != prefix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void splitToken(@NotNull CharSequence text, int start, int end, @NotNull WordProcessor processor) {
+        int i = start;
+        while (i < end) {
+            if (!Character.isLetter(text.charAt(i)) || (i > start && isWordChar(text, start, i - 1))) {
+                i++;
+                continue;
+            }
+            int lettersEnd = skipLetters(text, i, end);
+            int wordEnd = -1;
+            if (lettersEnd < end && text.charAt(lettersEnd) == '\'') {
+                int next = lettersEnd + 1;
+                int tailEnd = skipLetters(text, next, end);
+                if (tailEnd > next) {
+                    // Letters after apostrophe, otherwise boundary is right after apostrophe
+                    wordEnd = isBoundaryAfterWordChar(text, start, tailEnd, end) ? tailEnd : next;
+                } else if (next < end && isWordChar(text, start, next)) {
+                    wordEnd = next;
+                }
+            }
+            if (wordEnd == -1 && isBoundaryAfterWordChar(text, start, lettersEnd, end)) {
+                wordEnd = lettersEnd;
+            }
+            if (wordEnd != -1) {
+                if (wordEnd - i > 1) {
+                    processor.processWord(text, i, wordEnd);
+                }
+                i = wordEnd;
+            } else {
+                i = lettersEnd;
+            }
+        }
+    }
+
+    private static int skipLetters(@NotNull CharSequence text, int offset, int end) {
+        while (offset < end && Character.isLetter(text.charAt(offset))) {
+            offset++;
+        }
+        return offset;
+    }
+
+    private static boolean isBoundaryAfterWordChar(@NotNull CharSequence text, int start, int offset, int end) {
+        return offset == end || !isWordChar(text, start, offset);
+    }
+
+    /**
+     * Word character as defined by <code>\b</code>: letter, digit, underscore or non spacing mark of letter or digit.
+     */
+    private static boolean isWordChar(@NotNull CharSequence text, int start, int offset) {
+        char c = text.charAt(offset);
+        if (c == '_' || Character.isLetterOrDigit(c)) {
+            return true;
+        }
+        if (Character.getType(c) == Character.NON_SPACING_MARK) {
+            for (int i = offset - 1; i >= start; i--) {
+                char base = text.charAt(i);
+                if (Character.getType(base) != Character.NON_SPACING_MARK) {
+                    return Character.isLetterOrDigit(base);
+                }
+            }
+        }
+        return false;
+    }
+}
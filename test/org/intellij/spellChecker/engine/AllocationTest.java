@@ -0,0 +1,134 @@
+/*
+ * Copyright 2007 Sergiy Dubovik, Alexey Efimov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.spellChecker.engine;
+
+import junit.framework.TestCase;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayInputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Checks that check path allocates nothing: alphabet tests and checks of lower cased words.
+ * <p/>
+ * Bytes are counted by <code>com.sun.management.ThreadMXBean</code> for current thread, the same counter as
+ * <code>gc.alloc.rate.norm</code> of benchmarks. Test passes without checks on JVM which does not count
+ * allocated bytes.
+ *
+ * @author Alexey Efimov
+ */
+public class AllocationTest extends TestCase {
+    private static final int WARMUP = 50000;
+    private static final int OPERATIONS = 100000;
+    private static final double MAX_BYTES_PER_OPERATION = 0.1;
+    @NonNls
+    private static final String ENCODING = "utf-8";
+    @NonNls
+    private static final String[] WORDS = {
+            "spelling", "checker", "stra\u00dfe", "gr\u00fc\u00dfe",
+            "\u043f\u0440\u0438\u0432\u0435\u0442", "\u0441\u043b\u043e\u0432\u043e"
+    };
+    @NonNls
+    private static final String[] MISSPELLED = {
+            "speling", "chekcer", "strase", "\u043f\u0440\u0438\u0432\u0435\u0442\u0442", "qwxz"
+    };
+
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    private Method allocatedBytes;
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        try {
+            Class<?> type = Class.forName("com.sun.management.ThreadMXBean");
+            if (type.isInstance(threadBean)) {
+                allocatedBytes = type.getMethod("getThreadAllocatedBytes", long.class);
+                if (getAllocatedBytes() < 0) {
+                    allocatedBytes = null;
+                }
+            }
+        } catch (Exception e) {
+            // Not Sun JVM, or JVM before Java 6 update 25
+            allocatedBytes = null;
+        }
+    }
+
+    public void testAlphabet() throws Exception {
+        final Alphabet latin = Alphabet.of(Arrays.asList("spelling", "checker"));
+        final Alphabet mixed = Alphabet.of(Arrays.asList(WORDS));
+        assertNoAllocation("Alphabet.containsAll", new Operation() {
+            public int run(int index) {
+                String word = WORDS[index % WORDS.length];
+                return (latin.containsAll(word) ? 1 : 0) + (mixed.containsAll(word, 1, word.length()) ? 2 : 0);
+            }
+        });
+    }
+
+    public void testIsCorrect() throws Exception {
+        for (SpellCheckerFactory.Engine engine : SpellCheckerFactory.Engine.values()) {
+            final SpellChecker checker = SpellCheckerFactory.create(engine);
+            StringBuilder wordList = new StringBuilder();
+            for (String word : WORDS) {
+                wordList.append(word).append('\n');
+            }
+            checker.addDictionary(new ByteArrayInputStream(wordList.toString().getBytes(ENCODING)), ENCODING, Locale.ENGLISH);
+            checker.reset(Arrays.asList("userword"), Arrays.asList("ignoredword"));
+            assertTrue(checker.isCorrect(WORDS[0]));
+            assertFalse(checker.isCorrect(MISSPELLED[0]));
+
+            assertNoAllocation(engine + " isCorrect", new Operation() {
+                public int run(int index) {
+                    String correct = WORDS[index % WORDS.length];
+                    String misspelled = MISSPELLED[index % MISSPELLED.length];
+                    return (checker.isCorrect(correct) ? 1 : 0) + (checker.isCorrect(misspelled) ? 2 : 0)
+                            + (checker.isIgnored(misspelled) ? 4 : 0) + (checker.isCorrect("userword") ? 8 : 0);
+                }
+            });
+        }
+    }
+
+    private void assertNoAllocation(@NotNull String name, @NotNull Operation operation) throws Exception {
+        if (allocatedBytes == null) {
+            return;
+        }
+        int value = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            value += operation.run(i);
+        }
+        // Counter read allocates itself, it is subtracted
+        long overhead = -getAllocatedBytes() + getAllocatedBytes();
+        long before = getAllocatedBytes();
+        for (int i = 0; i < OPERATIONS; i++) {
+            value += operation.run(i);
+        }
+        long allocated = getAllocatedBytes() - before - overhead;
+        // One time allocations, such as of compilation, are below limit, any object per operation is above it
+        assertTrue(name + " allocates " + (double) allocated / OPERATIONS + " bytes per operation (" + value + ")",
+                (double) allocated / OPERATIONS < MAX_BYTES_PER_OPERATION);
+    }
+
+    private long getAllocatedBytes() throws Exception {
+        return (Long) allocatedBytes.invoke(threadBean, Thread.currentThread().getId());
+    }
+
+    private interface Operation {
+        int run(int index);
+    }
+}
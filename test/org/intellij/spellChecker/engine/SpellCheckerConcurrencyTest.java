@@ -0,0 +1,321 @@
+/*
+ * Copyright 2007 Sergiy Dubovik, Alexey Efimov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.spellChecker.engine;
+
+import junit.framework.TestCase;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks engines under concurrent checks, suggestions, user dictionary changes and resets.
+ * <p/>
+ * Readers check words while writers add user words and ignore words and resetter replaces them until
+ * readers are done. Readers
+ * assert that dictionary words and words of every reset stay correct, that unknown words stay misspelled
+ * and that word is correct once writer has added it, if no reset happened since. After threads finish no
+ * added or ignored word may be lost.
+ *
+ * @author Alexey Efimov
+ */
+public class SpellCheckerConcurrencyTest extends TestCase {
+    private static final int DICTIONARY_WORDS = 2000;
+    private static final int READERS = 4;
+    private static final int WRITERS = 2;
+    private static final int WRITER_WORDS = 2000;
+    private static final int CHECKS = 20000;
+    private static final int MAX_ERRORS = 10;
+    @NonNls
+    private static final String ENCODING = "us-ascii";
+    @NonNls
+    private static final String UNKNOWN_WORD = "qqqxxzzj";
+
+    private final List<String> dictionaryWords = new ArrayList<String>();
+    private final List<String> resetWords = new ArrayList<String>();
+    private final List<String> resetIgnoredWords = new ArrayList<String>();
+    private final Queue<String> errors = new ConcurrentLinkedQueue<String>();
+
+    protected void setUp() throws Exception {
+        super.setUp();
+        Random random = new Random(20071017L);
+        Set<String> words = new LinkedHashSet<String>();
+        while (words.size() < DICTIONARY_WORDS) {
+            words.add(randomWord(random));
+        }
+        dictionaryWords.addAll(words);
+        for (int i = 0; i < 50; i++) {
+            resetWords.add("reset" + encode(i));
+            resetIgnoredWords.add("resetignored" + encode(i));
+        }
+    }
+
+    public void testAddWhileChecking() throws Exception {
+        for (SpellCheckerFactory.Engine engine : SpellCheckerFactory.Engine.values()) {
+            SpellChecker checker = createChecker(engine);
+            Writer[] writers = run(checker, false);
+            assertNoErrors(engine);
+            for (Writer writer : writers) {
+                for (String word : writer.getAddedWords()) {
+                    assertTrue(engine + ": lost " + word, checker.isCorrect(word));
+                }
+                for (String word : writer.getIgnoredWords()) {
+                    assertTrue(engine + ": lost ignored " + word, checker.isIgnored(word));
+                }
+            }
+        }
+    }
+
+    public void testResetWhileChecking() throws Exception {
+        for (SpellCheckerFactory.Engine engine : SpellCheckerFactory.Engine.values()) {
+            SpellChecker checker = createChecker(engine);
+            Writer[] writers = run(checker, true);
+            assertNoErrors(engine);
+
+            checker.reset(resetWords, resetIgnoredWords);
+            for (Writer writer : writers) {
+                for (String word : writer.getAddedWords()) {
+                    assertFalse(engine + ": not reset " + word, checker.isCorrect(word));
+                }
+                for (String word : writer.getIgnoredWords()) {
+                    assertFalse(engine + ": not reset ignored " + word, checker.isIgnored(word));
+                }
+            }
+            String word = writers[0].words[0];
+            checker.addToDictionary(word);
+            assertTrue(engine + ": lost " + word + " after reset", checker.isCorrect(word));
+        }
+    }
+
+    @NotNull
+    private Writer[] run(@NotNull final SpellChecker checker, boolean reset) throws InterruptedException {
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(READERS);
+        final AtomicInteger resets = new AtomicInteger();
+        final Writer[] writers = new Writer[WRITERS];
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < WRITERS; i++) {
+            writers[i] = new Writer(checker, "writer" + encode(i), start, done);
+            threads.add(new Thread(writers[i]));
+        }
+        for (int i = 0; i < READERS; i++) {
+            threads.add(new Thread(new Reader(checker, writers, resets, start, done, i)));
+        }
+        if (reset) {
+            threads.add(new Thread(new Runnable() {
+                public void run() {
+                    await(start);
+                    while (done.getCount() > 0) {
+                        resets.incrementAndGet();
+                        checker.reset(resetWords, resetIgnoredWords);
+                        Thread.yield();
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return writers;
+    }
+
+    private void assertNoErrors(@NotNull SpellCheckerFactory.Engine engine) {
+        assertTrue(engine + ": " + errors, errors.isEmpty());
+    }
+
+    private void error(@NotNull String message) {
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(message);
+        }
+    }
+
+    @NotNull
+    private SpellChecker createChecker(@NotNull SpellCheckerFactory.Engine engine) throws IOException {
+        errors.clear();
+        StringBuilder wordList = new StringBuilder();
+        for (String word : dictionaryWords) {
+            wordList.append(word).append('\n');
+        }
+        SpellChecker checker = SpellCheckerFactory.create(engine);
+        checker.addDictionary(new ByteArrayInputStream(wordList.toString().getBytes(ENCODING)), ENCODING, Locale.ENGLISH);
+        checker.reset(resetWords, resetIgnoredWords);
+        return checker;
+    }
+
+    @NotNull
+    private static String randomWord(@NotNull Random random) {
+        int length = 4 + random.nextInt(6);
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append((char) ('a' + random.nextInt(26)));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Encode number by letters, words with digits are not words for checker.
+     */
+    @NotNull
+    private static String encode(int number) {
+        StringBuilder builder = new StringBuilder();
+        do {
+            builder.append((char) ('a' + number % 26));
+            number /= 26;
+        } while (number > 0);
+        return builder.toString();
+    }
+
+    private static void await(@NotNull CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Adds own unique words one by one, every fourth word is ignored instead and every eighth is added with
+     * batch method. Words are published to readers after they are added, writer stops when readers are done.
+     */
+    private final class Writer implements Runnable {
+        private final SpellChecker checker;
+        private final CountDownLatch start;
+        private final CountDownLatch done;
+        private final String[] words = new String[WRITER_WORDS];
+        private final List<String> addedWords = new ArrayList<String>();
+        private final List<String> ignoredWords = new ArrayList<String>();
+        private final AtomicInteger published = new AtomicInteger();
+
+        private Writer(@NotNull SpellChecker checker, @NotNull String prefix, @NotNull CountDownLatch start,
+                       @NotNull CountDownLatch done) {
+            this.checker = checker;
+            this.start = start;
+            this.done = done;
+            for (int i = 0; i < WRITER_WORDS; i++) {
+                words[i] = prefix + encode(i);
+            }
+        }
+
+        public void run() {
+            await(start);
+            for (int i = 0; i < WRITER_WORDS && done.getCount() > 0; i++) {
+                String word = words[i];
+                if (isIgnored(i)) {
+                    checker.ignoreAll(word);
+                    ignoredWords.add(word);
+                } else {
+                    if (i % 8 == 1) {
+                        checker.addAllToDictionary(Collections.singletonList(word));
+                    } else {
+                        checker.addToDictionary(word);
+                    }
+                    addedWords.add(word);
+                }
+                published.set(i + 1);
+            }
+        }
+
+        public boolean isIgnored(int index) {
+            return index % 4 == 3;
+        }
+
+        @NotNull
+        public List<String> getAddedWords() {
+            return addedWords;
+        }
+
+        @NotNull
+        public List<String> getIgnoredWords() {
+            return ignoredWords;
+        }
+    }
+
+    private final class Reader implements Runnable {
+        private final SpellChecker checker;
+        private final Writer[] writers;
+        private final AtomicInteger resets;
+        private final CountDownLatch start;
+        private final CountDownLatch done;
+        private final Random random;
+
+        private Reader(@NotNull SpellChecker checker, @NotNull Writer[] writers, @NotNull AtomicInteger resets,
+                       @NotNull CountDownLatch start, @NotNull CountDownLatch done, int seed) {
+            this.checker = checker;
+            this.writers = writers;
+            this.resets = resets;
+            this.start = start;
+            this.done = done;
+            random = new Random(seed);
+        }
+
+        public void run() {
+            await(start);
+            try {
+                for (int i = 0; i < CHECKS; i++) {
+                    check();
+                }
+            } catch (RuntimeException e) {
+                error(e.toString());
+            } finally {
+                done.countDown();
+            }
+        }
+
+        private void check() {
+            String dictionaryWord = dictionaryWords.get(random.nextInt(dictionaryWords.size()));
+            if (!checker.isCorrect(dictionaryWord)) {
+                error("dictionary word " + dictionaryWord + " is misspelled");
+            }
+            String resetWord = resetWords.get(random.nextInt(resetWords.size()));
+            if (!checker.isCorrect(resetWord)) {
+                error("user word " + resetWord + " is misspelled");
+            }
+            String resetIgnoredWord = resetIgnoredWords.get(random.nextInt(resetIgnoredWords.size()));
+            if (!checker.isIgnored(resetIgnoredWord)) {
+                error("ignored word " + resetIgnoredWord + " is not ignored");
+            }
+            if (checker.isCorrect(UNKNOWN_WORD)) {
+                error("unknown word " + UNKNOWN_WORD + " is correct");
+            }
+
+            Writer writer = writers[random.nextInt(writers.length)];
+            int published = writer.published.get();
+            if (published > 0) {
+                int index = random.nextInt(published);
+                String word = writer.words[index];
+                boolean known = writer.isIgnored(index) ? checker.isIgnored(word) : checker.isCorrect(word);
+                // Word may be dropped only by reset, started after it was added
+                if (!known && resets.get() == 0) {
+                    error("added word " + word + " is lost");
+                }
+            }
+
+            if (random.nextInt(64) == 0) {
+                checker.getSuggestions(UNKNOWN_WORD, 0);
+                checker.getVariants(dictionaryWord.substring(0, 2), 10);
+            }
+        }
+    }
+}
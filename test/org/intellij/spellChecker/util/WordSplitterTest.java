@@ -0,0 +1,190 @@
+/*
+ * Copyright 2007 Sergiy Dubovik, Alexey Efimov
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.intellij.spellChecker.util;
+
+import junit.framework.TestCase;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Checks that {@link WordSplitter} gives the same word ranges as regular expressions it replaced in
+ * visitors.
+ * <p/>
+ * Java 19 and later match <code>\b</code> by ASCII word characters unless Unicode character classes are on,
+ * so there regular expressions are compiled with <code>(?U)</code>. It keeps Unicode word boundaries of
+ * previous versions, except for non spacing marks, which are then word characters even without letter before
+ * them, so texts with marks are compared on previous versions only.
+ *
+ * @author Alexey Efimov
+ */
+public class WordSplitterTest extends TestCase {
+    private static final boolean UNICODE_WORD_BOUNDARY = Pattern.compile("\\b").matcher("\u0436").find();
+    @NonNls
+    private static final String UNICODE_FLAG = UNICODE_WORD_BOUNDARY ? "" : "(?U)";
+    @NonNls
+    private static final Pattern NON_SPACE = Pattern.compile("\\S+");
+    @NonNls
+    private static final Pattern WORD = Pattern.compile(UNICODE_FLAG + "\\b\\p{L}+'?\\p{L}*\\b");
+    @NonNls
+    private static final Pattern URL = Pattern.compile("(https?|ftp|mailto)\\:\\/\\/");
+    @NonNls
+    private static final Pattern COMPLEX = Pattern.compile("(\\.[^\\.]+)|([@_]+)");
+
+    private static final char NON_SPACING_MARK = '\u0301';
+    @NonNls
+    private static final char[] RANDOM_CHARS = {
+            'a', 'b', 'e', 'r', 'A', 'Z', '0', '7', '\'', '\'', '.', '@', '_', '-', ':', '/', ' ', ' ', '\t', '\n',
+            '\u00a0', '\u0430', '\u0416', '\u00fc', '\u00df', '\u01c5', '\u03b1', '\u65e5'
+    };
+
+    public void testEmpty() {
+        assertSameWords("");
+        assertSameWords(" ");
+        assertSameWords(" \t\r\n ");
+        assertSameWords("a");
+        assertSameWords("'");
+    }
+
+    public void testPlainWords() {
+        assertSameWords("The quick brown fox jumps over the lazy dog");
+        assertSameWords("  leading and trailing spaces  ");
+        assertSameWords("tabs\tand\nnew\r\nlines\fform\u000Bfeed");
+        assertSameWords("punctuation, commas; colons: (braces) [brackets] \"quotes\" end.");
+        assertSameWords("ellipsis... and dots.. at end.");
+    }
+
+    public void testMixedCase() {
+        assertSameWords("getWordCount CamelCase HTMLParser iPhone XMLHttpRequest");
+        assertSameWords("UPPER lower Title mIxEd");
+        assertSameWords("hyphenated-word, co-operate, re-enter");
+    }
+
+    public void testDigits() {
+        assertSameWords("abc123 123abc 1st 2nd x86 utf8 a1b2c3");
+        assertSameWords("version 1.0 and 2.5.1 build 42");
+        assertSameWords("word7'word 7'word word'7");
+    }
+
+    public void testApostrophes() {
+        assertSameWords("don't can't won't isn't");
+        assertSameWords("rock'n'roll o'clock O'Reilly");
+        assertSameWords("'quoted' ''double'' it''s tail' 'head");
+        assertSameWords("a'b ab'c abc'd' ab'' ''ab");
+    }
+
+    public void testNonLatin() {
+        assertSameWords("\u041f\u0440\u0438\u0432\u0435\u0442 \u043c\u0438\u0440, \u0440\u0430\u0431\u043e\u0442\u0430\u0435\u0442!");
+        assertSameWords("Gr\u00fc\u00dfe aus M\u00fcnchen, Stra\u00dfe");
+        assertSameWords("\u03ba\u03b1\u03bb\u03b7\u03bc\u03ad\u03c1\u03b1 \u03ba\u03cc\u03c3\u03bc\u03b5");
+        assertSameWords("\u65e5\u672c\u8a9e\u306e\u30c6\u30ad\u30b9\u30c8 \u4e2d\u6587");
+        if (UNICODE_WORD_BOUNDARY) {
+            assertSameWords("cafe\u0301 nai\u0308ve \u0301ab a\u0301\u0301b");
+        }
+        assertSameWords("\u01c5ungla \u01c8ubav mixed\u0416\u043dword");
+        assertSameWords("non\u00a0breaking\u00a0space");
+    }
+
+    public void testSkippedTokens() {
+        assertSameWords("see http://example.com/page and https://host or ftp://files mailto://me");
+        assertSameWords("mail user@example.com or snake_case_name or __init__");
+        assertSameWords("dotted.name java.lang.String trailing. dots...");
+        assertSameWords("xhttp://host http:/half ftp:// http://");
+    }
+
+    public void testRange() {
+        final String text = "skipped words, checked words and skipped tail";
+        final int start = text.indexOf("checked");
+        final int end = text.indexOf(" and");
+        List<Integer> ranges = new ArrayList<Integer>();
+        split(text, start, end, ranges);
+        assertEquals(matchWords(text.substring(start, end), start), ranges);
+    }
+
+    public void testRandom() {
+        Random random = new Random(20071017L);
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            builder.setLength(0);
+            int length = random.nextInt(24);
+            for (int j = 0; j < length; j++) {
+                int index = random.nextInt(RANDOM_CHARS.length + 1);
+                if (index < RANDOM_CHARS.length) {
+                    builder.append(RANDOM_CHARS[index]);
+                } else if (UNICODE_WORD_BOUNDARY) {
+                    builder.append(NON_SPACING_MARK);
+                }
+            }
+            assertSameWords(builder.toString());
+        }
+    }
+
+    private static void assertSameWords(@NotNull String text) {
+        List<Integer> ranges = new ArrayList<Integer>();
+        split(text, 0, text.length(), ranges);
+        assertEquals(escape(text), matchWords(text, 0), ranges);
+    }
+
+    private static void split(@NotNull String text, int start, int end, @NotNull final List<Integer> ranges) {
+        WordSplitter.split(text, start, end, new WordSplitter.WordProcessor() {
+            public void processWord(@NotNull CharSequence text, int start, int end) {
+                ranges.add(start);
+                ranges.add(end);
+            }
+        });
+    }
+
+    /**
+     * Splitting of visitors before {@link WordSplitter}.
+     */
+    @NotNull
+    private static List<Integer> matchWords(@NotNull String text, int offset) {
+        List<Integer> ranges = new ArrayList<Integer>();
+        Matcher tokens = NON_SPACE.matcher(text);
+        while (tokens.find()) {
+            String token = tokens.group();
+            if (token.length() > 1 && !URL.matcher(token).find() && !COMPLEX.matcher(token).find()) {
+                Matcher words = WORD.matcher(token);
+                while (words.find()) {
+                    if (words.end() - words.start() > 1) {
+                        ranges.add(offset + tokens.start() + words.start());
+                        ranges.add(offset + tokens.start() + words.end());
+                    }
+                }
+            }
+        }
+        return ranges;
+    }
+
+    @NotNull
+    private static String escape(@NotNull String text) {
+        StringBuilder builder = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < ' ' || c > '~') {
+                builder.append(String.format("\\u%04x", (int) c));
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+}